@@ -0,0 +1,73 @@
+package the.husky.onlineshoprest.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import the.husky.onlineshoprest.OnlineShopRestApplication;
+import the.husky.onlineshoprest.bloom.UserLookupFilter;
+import the.husky.onlineshoprest.entity.ItemEntity;
+import the.husky.onlineshoprest.entity.UserEntity;
+import the.husky.onlineshoprest.repository.ItemRepository;
+import the.husky.onlineshoprest.repository.UserRepository;
+import the.husky.onlineshoprest.search.ItemSearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public final class BenchmarkApplication {
+    private static final String[] EMBEDDED_DATABASE = {
+            "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.jpa.show-sql=false",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--spring.main.web-application-type=none",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=WARN"
+    };
+    private static final String[] ADJECTIVES = {"red", "wooden", "compact", "wireless", "heavy", "vintage"};
+    private static final String[] MATERIALS = {"steel", "oak", "plastic", "glass", "cotton"};
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String... arguments) {
+        String[] allArguments = Stream.concat(Stream.of(EMBEDDED_DATABASE), Stream.of(arguments))
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(OnlineShopRestApplication.class).run(allArguments);
+    }
+
+    public static void seed(ConfigurableApplicationContext context, int itemCount, int userCount) {
+        List<ItemEntity> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(item(i));
+        }
+        context.getBean(ItemRepository.class).saveAll(items);
+
+        List<UserEntity> users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            users.add(UserEntity.builder()
+                    .name("User " + i)
+                    .login("login" + i)
+                    .password("password" + i)
+                    .email("user" + i + "@example.com")
+                    .age(18 + i % 60)
+                    .build());
+        }
+        context.getBean(UserRepository.class).saveAll(users);
+        // Seeding runs after startup, so the in-memory views built on ApplicationReadyEvent are stale.
+        context.getBean(ItemSearchIndex.class).build();
+        context.getBean(UserLookupFilter.class).build();
+    }
+
+    public static ItemEntity item(int index) {
+        return ItemEntity.builder()
+                .title("Item " + index + " " + ADJECTIVES[index % ADJECTIVES.length])
+                .description("Benchmark item number " + index + " made of " + MATERIALS[index % MATERIALS.length])
+                .price(1 + index % 1000)
+                .weight(0.1 + index % 50)
+                .build();
+    }
+}
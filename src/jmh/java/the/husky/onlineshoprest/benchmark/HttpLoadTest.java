@@ -0,0 +1,110 @@
+package the.husky.onlineshoprest.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class HttpLoadTest {
+
+    private HttpLoadTest() {
+    }
+
+    // Closed-loop load: each worker sends its next request as soon as the previous one completes.
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(args[0]);
+        int concurrency = Integer.parseInt(args[1]);
+        Duration duration = Duration.ofSeconds(Long.parseLong(args[2]));
+        Path result = Path.of(args[3]);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        AtomicLong errors = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<Future<long[]>> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(executor.submit(() -> run(client, request, deadline, errors, rejected)));
+        }
+        List<long[]> samples = new ArrayList<>(concurrency);
+        for (Future<long[]> worker : workers) {
+            samples.add(worker.get());
+        }
+        executor.shutdown();
+
+        long[] latencies = samples.stream()
+                .flatMapToLong(Arrays::stream)
+                .sorted()
+                .toArray();
+        double seconds = duration.toNanos() / 1e9;
+        String json = String.format(Locale.ROOT,
+                "{\"url\":\"%s\",\"concurrency\":%d,\"requests\":%d,\"errors\":%d,\"rejected\":%d,"
+                        + "\"throughput\":%.1f,\"p50Millis\":%.3f,\"p99Millis\":%.3f,\"p999Millis\":%.3f,"
+                        + "\"maxMillis\":%.3f}",
+                uri, concurrency, latencies.length, errors.get(), rejected.get(), latencies.length / seconds,
+                percentile(latencies, 0.5), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                percentile(latencies, 1.0));
+        System.out.println(json);
+        Files.writeString(result, json + System.lineSeparator());
+    }
+
+    // Shed requests come back in microseconds, counted with the rest they would flatter the latencies.
+    private static long[] run(HttpClient client, HttpRequest request, long deadline, AtomicLong errors,
+                              AtomicLong rejected) {
+        long[] samples = new long[1024];
+        int count = 0;
+        while (System.nanoTime() < deadline) {
+            long started = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 429 || response.statusCode() == 503) {
+                    rejected.incrementAndGet();
+                    continue;
+                }
+                if (response.statusCode() >= 500) {
+                    errors.incrementAndGet();
+                    continue;
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet();
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, count * 2);
+            }
+            samples[count++] = System.nanoTime() - started;
+        }
+        return Arrays.copyOf(samples, count);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,95 @@
+package the.husky.onlineshoprest.benchmark;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+public final class StartupTest {
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(2);
+    private static final long POLL_MILLIS = 10;
+
+    private StartupTest() {
+    }
+
+    // Starts the command `runs` times and measures how long until the port accepts connections, and then
+    // how long the first request takes. Results are appended, so runs of the jvm, aot-cds and native
+    // builds end up side by side in one file.
+    public static void main(String[] args) throws Exception {
+        String mode = args[0];
+        URI uri = URI.create(args[1]);
+        int runs = Integer.parseInt(args[2]);
+        Path result = Path.of(args[3]);
+        List<String> command = Arrays.asList(args).subList(4, args.length);
+
+        long[] startups = new long[runs];
+        long[] firstRequests = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long[] sample = run(command, uri);
+            startups[i] = sample[0];
+            firstRequests[i] = sample[1];
+        }
+        Arrays.sort(startups);
+        Arrays.sort(firstRequests);
+        String json = String.format(Locale.ROOT,
+                "{\"mode\":\"%s\",\"url\":\"%s\",\"runs\":%d,\"startupMedianMillis\":%.1f,\"startupMinMillis\":%.1f,"
+                        + "\"firstRequestMedianMillis\":%.1f,\"firstRequestMinMillis\":%.1f}",
+                mode, uri, runs, median(startups), startups[0] / 1e6, median(firstRequests), firstRequests[0] / 1e6);
+        System.out.println(json);
+        Files.writeString(result, json + System.lineSeparator(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static long[] run(List<String> command, URI uri) throws IOException, InterruptedException {
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            awaitPort(process, uri, started);
+            long startup = System.nanoTime() - started;
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            long requested = System.nanoTime();
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+            long firstRequest = System.nanoTime() - requested;
+            if (response.statusCode() >= 500) {
+                throw new IllegalStateException("First request failed with " + response.statusCode());
+            }
+            return new long[]{startup, firstRequest};
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static void awaitPort(Process process, URI uri, long started) throws InterruptedException {
+        InetSocketAddress address = new InetSocketAddress(uri.getHost(), uri.getPort());
+        while (System.nanoTime() - started < START_TIMEOUT.toNanos()) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue());
+            }
+            try (Socket socket = new Socket()) {
+                socket.connect(address, (int) POLL_MILLIS);
+                return;
+            } catch (IOException e) {
+                Thread.sleep(POLL_MILLIS);
+            }
+        }
+        throw new IllegalStateException("Application did not open " + address + " within " + START_TIMEOUT);
+    }
+
+    private static double median(long[] sorted) {
+        return sorted[sorted.length / 2] / 1e6;
+    }
+}
@@ -0,0 +1,79 @@
+package the.husky.onlineshoprest.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+import the.husky.onlineshoprest.benchmark.BenchmarkApplication;
+import the.husky.onlineshoprest.dto.Item;
+import the.husky.onlineshoprest.dto.SerializedItem;
+import the.husky.onlineshoprest.dto.TaggedItem;
+import the.husky.onlineshoprest.entity.ItemEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// What a single-item response costs once the entity is in memory. Run with -prof gc to compare
+// the bytes allocated per operation, which is what the serialized cache is there to cut.
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ItemJsonCacheBenchmark {
+    private static final int ITEM_COUNT = 1000;
+
+    private final ObjectMapper reflectiveMapper = JsonMapper.builder().build();
+    private final ObjectMapper blackbirdMapper = JsonMapper.builder().addModule(new BlackbirdModule()).build();
+    private final List<ItemEntity> itemEntities = new ArrayList<>(ITEM_COUNT);
+    private final List<TaggedItem> taggedItems = new ArrayList<>(ITEM_COUNT);
+    private ItemJsonCache itemJsonCache;
+
+    @Setup
+    public void setUp() {
+        ItemJsonCacheProperties properties = new ItemJsonCacheProperties(DataSize.ofMegabytes(32),
+                DataSize.ofMegabytes(32));
+        itemJsonCache = new ItemJsonCache(properties, blackbirdMapper, new LocalItemCacheInvalidationChannel());
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            ItemEntity itemEntity = BenchmarkApplication.item(i);
+            itemEntity.setItemId(i);
+            itemEntities.add(itemEntity);
+            TaggedItem taggedItem = new TaggedItem(Item.toDto(itemEntity), "0");
+            taggedItems.add(taggedItem);
+            itemJsonCache.serialize(taggedItem);
+        }
+    }
+
+    @Benchmark
+    public byte[] mapAndSerializeReflective() throws JsonProcessingException {
+        return reflectiveMapper.writeValueAsBytes(Item.toDto(randomEntity()));
+    }
+
+    @Benchmark
+    public byte[] mapAndSerializeBlackbird() throws JsonProcessingException {
+        return blackbirdMapper.writeValueAsBytes(Item.toDto(randomEntity()));
+    }
+
+    @Benchmark
+    public SerializedItem cachedJson() {
+        return itemJsonCache.serialize(taggedItems.get(ThreadLocalRandom.current().nextInt(ITEM_COUNT)));
+    }
+
+    private ItemEntity randomEntity() {
+        return itemEntities.get(ThreadLocalRandom.current().nextInt(ITEM_COUNT));
+    }
+}
@@ -0,0 +1,66 @@
+package the.husky.onlineshoprest.dto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import the.husky.onlineshoprest.benchmark.BenchmarkApplication;
+import the.husky.onlineshoprest.entity.ItemEntity;
+import the.husky.onlineshoprest.entity.UserEntity;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DtoMappingBenchmark {
+    private ItemEntity itemEntity;
+    private UserEntity userEntity;
+
+    @Setup
+    public void setUp() {
+        itemEntity = BenchmarkApplication.item(42);
+        itemEntity.setItemId(42);
+        userEntity = UserEntity.builder()
+                .userId(42)
+                .name("User")
+                .login("login")
+                .password("password")
+                .email("user@example.com")
+                .age(30)
+                .registrationDate(LocalDate.of(2023, 9, 1))
+                .build();
+    }
+
+    @Benchmark
+    public Item itemToDtoWithBuilder() {
+        return Item.toDto(itemEntity);
+    }
+
+    @Benchmark
+    public Item itemToDtoWithConstructor() {
+        return new Item(itemEntity.getItemId(), itemEntity.getTitle(), itemEntity.getDescription(),
+                itemEntity.getPrice(), itemEntity.getWeight(), itemEntity.getVersion());
+    }
+
+    @Benchmark
+    public User userToDtoWithBuilder() {
+        return User.toDto(userEntity);
+    }
+
+    @Benchmark
+    public User userToDtoWithConstructor() {
+        return new User(userEntity.getUserId(), userEntity.getName(), userEntity.getEmail(), userEntity.getAge(),
+                userEntity.getRegistrationDate(), userEntity.getVersion());
+    }
+}
@@ -0,0 +1,115 @@
+package the.husky.onlineshoprest.exception;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import the.husky.onlineshoprest.benchmark.BenchmarkApplication;
+import the.husky.onlineshoprest.controller.ItemController;
+import the.husky.onlineshoprest.exception.item.ItemNotFoundException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Each variant turns a lookup miss into a 404 response stackDepth frames down, which mimics the
+// servlet and filter chain of a real request. The *Miss benchmarks leave the lookup itself out.
+@Slf4j
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NotFoundBenchmark {
+    private static final int CATALOG_SIZE = 1000;
+
+    @Param({"10", "150"})
+    private int stackDepth;
+
+    private ConfigurableApplicationContext context;
+    private ItemController itemController;
+    private DefaultExceptionHandler exceptionHandler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Misses log synchronously to a file, as they would in production, instead of flooding the JMH output.
+        context = BenchmarkApplication.start(
+                "--logging.file.name=target/jmh-not-found.log",
+                "--logging.pattern.console=");
+        BenchmarkApplication.seed(context, CATALOG_SIZE, 0);
+        itemController = context.getBean(ItemController.class);
+        exceptionHandler = context.getBean(DefaultExceptionHandler.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // The miss as it was: String.format, an ERROR line, a full stack trace and an ExceptionEntity body.
+    @Benchmark
+    public ResponseEntity<?> legacyMiss() {
+        long id = missingId();
+        return atDepth(stackDepth, () -> {
+            try {
+                String errorMessage = String.format("Item with id: %s not found", id);
+                log.error("Error during getting item by id: {}", errorMessage);
+                throw new RuntimeException(errorMessage);
+            } catch (RuntimeException e) {
+                ExceptionEntity exception = new ExceptionEntity(
+                        e.getMessage(),
+                        HttpStatus.NOT_FOUND,
+                        HttpStatus.NOT_FOUND.value());
+                return new ResponseEntity<>(exception, HttpStatus.NOT_FOUND);
+            }
+        });
+    }
+
+    // Edit, patch and delete still throw, now stackless and handled with a rate-limited log line.
+    @Benchmark
+    public ResponseEntity<?> stacklessExceptionMiss() {
+        long id = missingId();
+        return atDepth(stackDepth, () -> {
+            try {
+                throw new ItemNotFoundException("Item with id: " + id + " not found");
+            } catch (ItemNotFoundException e) {
+                return exceptionHandler.handleItemNotFoundException(e);
+            }
+        });
+    }
+
+    @Benchmark
+    public ResponseEntity<?> problemMiss() {
+        long id = missingId();
+        return atDepth(stackDepth, () -> Problems.notFound("Item with id: " + id + " not found"));
+    }
+
+    // Full lookup through the controller, dominated by the database round trip.
+    @Benchmark
+    public ResponseEntity<?> controllerLookupMiss() {
+        long id = missingId();
+        return atDepth(stackDepth, () -> itemController.getItemById(id));
+    }
+
+    private long missingId() {
+        return ThreadLocalRandom.current().nextLong(CATALOG_SIZE + 1, Long.MAX_VALUE);
+    }
+
+    private static <T> T atDepth(int depth, Supplier<T> supplier) {
+        return depth <= 0 ? supplier.get() : atDepth(depth - 1, supplier);
+    }
+}
@@ -0,0 +1,78 @@
+package the.husky.onlineshoprest.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import the.husky.onlineshoprest.benchmark.BenchmarkApplication;
+import the.husky.onlineshoprest.entity.ItemEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Goes to the repositories directly, the item caches in front of them would hide what Hibernate does.
+// The prod profile brings the second-level and query caches and statement batching. A long warmup,
+// Hibernate's read paths take a while to compile.
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PersistenceBenchmark {
+    private static final int CATALOG_SIZE = 20_000;
+    private static final int DISTINCT_PRICES = 1000;
+    private static final int INSERT_BATCH = 50;
+
+    @Param({"default", "prod"})
+    private String profile;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("--spring.profiles.active=" + profile,
+                "--logging.level.org.hibernate.SQL=WARN");
+        BenchmarkApplication.seed(context, CATALOG_SIZE, 0);
+        itemRepository = context.getBean(ItemRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<ItemEntity> findById() {
+        return itemRepository.findById(ThreadLocalRandom.current().nextLong(1, CATALOG_SIZE + 1));
+    }
+
+    @Benchmark
+    public Optional<List<ItemEntity>> findAllByPrice() {
+        return itemRepository.findAllByPrice(1 + ThreadLocalRandom.current().nextInt(DISTINCT_PRICES));
+    }
+
+    @Benchmark
+    public List<ItemEntity> insertBatch() {
+        int first = ThreadLocalRandom.current().nextInt(CATALOG_SIZE);
+        List<ItemEntity> items = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < INSERT_BATCH; i++) {
+            items.add(BenchmarkApplication.item(first + i));
+        }
+        return itemRepository.saveAll(items);
+    }
+}
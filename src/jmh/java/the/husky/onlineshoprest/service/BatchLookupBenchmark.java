@@ -0,0 +1,89 @@
+package the.husky.onlineshoprest.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import the.husky.onlineshoprest.benchmark.BenchmarkApplication;
+import the.husky.onlineshoprest.dto.ItemBatch;
+import the.husky.onlineshoprest.dto.UserBatch;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// Items go through the cache, users always hit the database, so the two show both effects of batching.
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BatchLookupBenchmark {
+    private static final int CATALOG_SIZE = 100_000;
+    private static final int USER_COUNT = 10_000;
+
+    @Param({"20", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private UserService userService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // A cache smaller than the catalog keeps a realistic share of misses.
+        context = BenchmarkApplication.start("--shop.cache.items.maximum-size=10000");
+        BenchmarkApplication.seed(context, CATALOG_SIZE, USER_COUNT);
+        itemService = context.getBean(ItemService.class);
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ItemBatch itemsBatch() {
+        return itemService.getItemsByIds(randomIds(CATALOG_SIZE));
+    }
+
+    @Benchmark
+    public void itemsOneByOne(Blackhole blackhole) {
+        for (Long id : randomIds(CATALOG_SIZE)) {
+            blackhole.consume(itemService.findItemById(id));
+        }
+    }
+
+    @Benchmark
+    public UserBatch usersBatch() {
+        return userService.getUsersByIds(randomIds(USER_COUNT));
+    }
+
+    @Benchmark
+    public void usersOneByOne(Blackhole blackhole) {
+        for (Long id : randomIds(USER_COUNT)) {
+            blackhole.consume(userService.findUserById(id));
+        }
+    }
+
+    private List<Long> randomIds(int bound) {
+        return LongStream.generate(() -> ThreadLocalRandom.current().nextLong(1, bound + 1))
+                .limit(batchSize)
+                .boxed()
+                .toList();
+    }
+}
@@ -0,0 +1,98 @@
+package the.husky.onlineshoprest.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import the.husky.onlineshoprest.benchmark.BenchmarkApplication;
+import the.husky.onlineshoprest.dto.Item;
+import the.husky.onlineshoprest.dto.ItemPage;
+import the.husky.onlineshoprest.dto.ItemSearchCriteria;
+import the.husky.onlineshoprest.dto.ItemSearchResult;
+import the.husky.onlineshoprest.dto.User;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ServiceBenchmark {
+    @Param({"10000"})
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private UserService userService;
+    private ItemSearchCriteria priceRange;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seed(context, catalogSize, catalogSize / 10);
+        itemService = context.getBean(ItemService.class);
+        userService = context.getBean(UserService.class);
+        priceRange = new ItemSearchCriteria();
+        priceRange.setMinPrice(100.0);
+        priceRange.setMaxPrice(110.0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Item getItemById() {
+        return itemService.getItemById(randomId(catalogSize));
+    }
+
+    @Benchmark
+    public ItemPage getItemsAfter() {
+        return itemService.getItemsAfter(randomId(catalogSize), 100);
+    }
+
+    @Benchmark
+    public ItemSearchResult searchItemsByPriceRange() {
+        return itemService.searchItems(priceRange, PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public List<Item> searchItemsByText() {
+        return itemService.searchItemsByText("wirel", 20);
+    }
+
+    @Benchmark
+    public List<Item> getItemsByTitle() {
+        return itemService.getItemsByTitle("Item " + (randomId(catalogSize) - 1) + " red");
+    }
+
+    @Benchmark
+    public Item apendItem() {
+        return itemService.apendItem(BenchmarkApplication.item(catalogSize));
+    }
+
+    @Benchmark
+    public User getUserByLogin() {
+        return userService.getUserByLogin("login" + (randomId(catalogSize / 10) - 1));
+    }
+
+    private long randomId(int bound) {
+        return ThreadLocalRandom.current().nextLong(1, bound + 1);
+    }
+}
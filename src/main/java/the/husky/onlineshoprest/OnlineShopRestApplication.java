@@ -2,8 +2,15 @@ package the.husky.onlineshoprest;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import the.husky.onlineshoprest.config.ShopRuntimeHints;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
+@ImportRuntimeHints(ShopRuntimeHints.class)
 public class OnlineShopRestApplication {
 
     public static void main(String[] args) {
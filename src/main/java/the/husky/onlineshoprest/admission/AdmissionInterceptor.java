@@ -0,0 +1,141 @@
+package the.husky.onlineshoprest.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import the.husky.onlineshoprest.exception.LoadSheddingException;
+import the.husky.onlineshoprest.exception.ServiceOverloadedException;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Decides before a request gets to a controller, while turning it away still costs nothing: no connection,
+// no query, no serialization. A request that doesn't fit is rejected at once rather than queued, waiting in
+// line is what made cheap lookups time out behind the scans.
+public class AdmissionInterceptor implements HandlerInterceptor {
+    private static final String METRIC_PREFIX = "shop.admission";
+    private static final String PERMIT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final AdmissionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ClientRateLimiter clientRateLimiter;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Method, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public AdmissionInterceptor(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        AdmissionProperties.ClientRateLimit clientRateLimit = properties.clientRateLimit();
+        this.clientRateLimiter = clientRateLimit.enabled()
+                ? new ClientRateLimiter(clientRateLimit.requestsPerSecond(), clientRateLimit.burst(),
+                clientRateLimit.stripes())
+                : null;
+        Gauge.builder(METRIC_PREFIX + ".in.flight", inFlight, AtomicInteger::get)
+                .description("Requests admitted and not yet completed")
+                .tag("endpoint", "all")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // An async dispatch finishes a request that was admitted on the first one.
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        Endpoint endpoint = endpoints.computeIfAbsent(handlerMethod.getMethod(),
+                method -> new Endpoint(request, handlerMethod));
+        if (clientRateLimiter != null) {
+            long waitNanos = clientRateLimiter.tryAcquire(request.getRemoteAddr());
+            if (waitNanos > 0) {
+                endpoint.rateLimited.increment();
+                throw new ServiceOverloadedException("Request rate limit exceeded, retry later",
+                        Duration.ofNanos(waitNanos));
+            }
+        }
+        if (!tryAcquire(endpoint.priority)) {
+            endpoint.shed.increment();
+            throw new LoadSheddingException("Server is busy, retry later", properties.retryAfter());
+        }
+        if (!endpoint.limiter.tryAcquire()) {
+            inFlight.decrementAndGet();
+            endpoint.shed.increment();
+            throw new LoadSheddingException("Too many requests to " + endpoint.name + " in progress, retry later",
+                    properties.retryAfter());
+        }
+        endpoint.admitted.increment();
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(endpoint, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            inFlight.decrementAndGet();
+            permit.endpoint().limiter.release(System.nanoTime() - permit.admittedAt());
+        }
+    }
+
+    private boolean tryAcquire(Priority priority) {
+        int capacity = (int) Math.max(1, properties.maxConcurrency() * priority.getShare());
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private record Permit(Endpoint endpoint, long admittedAt) {
+    }
+
+    private final class Endpoint {
+        private final String name;
+        private final Priority priority;
+        private final ConcurrencyLimiter limiter;
+        private final Counter admitted;
+        private final Counter shed;
+        private final Counter rateLimited;
+
+        private Endpoint(HttpServletRequest request, HandlerMethod handlerMethod) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            AdmissionPriority admissionPriority = handlerMethod.getMethodAnnotation(AdmissionPriority.class);
+            this.name = request.getMethod() + " " + (pattern == null ? request.getRequestURI() : pattern);
+            this.priority = admissionPriority == null ? Priority.STANDARD : admissionPriority.value();
+            this.limiter = new ConcurrencyLimiter(properties.initialLimit(), properties.minLimit(),
+                    properties.maxLimit());
+            this.admitted = decisions("admitted");
+            this.shed = decisions("shed");
+            this.rateLimited = decisions("rate_limited");
+            Gauge.builder(METRIC_PREFIX + ".limit", limiter, ConcurrencyLimiter::limit)
+                    .description("Requests the endpoint currently admits at once")
+                    .tag("endpoint", name)
+                    .register(meterRegistry);
+            Gauge.builder(METRIC_PREFIX + ".in.flight", limiter, ConcurrencyLimiter::inFlight)
+                    .description("Requests admitted and not yet completed")
+                    .tag("endpoint", name)
+                    .register(meterRegistry);
+        }
+
+        private Counter decisions(String outcome) {
+            return Counter.builder(METRIC_PREFIX + ".decisions")
+                    .description("Admission decisions by endpoint and outcome")
+                    .tag("endpoint", name)
+                    .tag("priority", priority.name().toLowerCase())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package the.husky.onlineshoprest.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+// maxConcurrency caps the requests in the controllers at once, and each priority class may take its share
+// of it. Every endpoint has its own adaptive limit on top, between minLimit and maxLimit.
+@ConfigurationProperties(prefix = "shop.admission")
+public record AdmissionProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue("128") int maxConcurrency,
+                                  @DefaultValue("16") int initialLimit,
+                                  @DefaultValue("2") int minLimit,
+                                  @DefaultValue("128") int maxLimit,
+                                  @DefaultValue("1s") Duration retryAfter,
+                                  @DefaultValue ClientRateLimit clientRateLimit) {
+
+    public record ClientRateLimit(@DefaultValue("false") boolean enabled,
+                                  @DefaultValue("200") double requestsPerSecond,
+                                  @DefaultValue("400") int burst,
+                                  @DefaultValue("4096") int stripes) {
+    }
+}
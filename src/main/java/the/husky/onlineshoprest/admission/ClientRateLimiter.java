@@ -0,0 +1,47 @@
+package the.husky.onlineshoprest.admission;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Token buckets kept as the generic cell rate algorithm: one timestamp per bucket, the moment it would be
+// full again, so taking a token is a single CAS. Clients are hashed onto a fixed set of stripes instead of
+// being tracked one by one. Memory stays the same however many addresses turn up, and clients that collide
+// share a bucket, which errs on the side of limiting.
+final class ClientRateLimiter {
+    // One stripe per 64-byte cache line, busy clients on neighbouring stripes don't slow each other down.
+    private static final int STRIDE = 8;
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int mask;
+    private final AtomicLongArray fullAt;
+
+    ClientRateLimiter(double requestsPerSecond, int burst, int stripes) {
+        this.intervalNanos = Math.max(1, (long) (1e9 / requestsPerSecond));
+        this.burstNanos = intervalNanos * Math.max(1, burst);
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.mask = size - 1;
+        this.fullAt = new AtomicLongArray(size * STRIDE);
+        long now = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            fullAt.set(i * STRIDE, now);
+        }
+    }
+
+    // 0 when the client had a token, otherwise how long until it has one.
+    long tryAcquire(String client) {
+        int hash = client.hashCode();
+        int index = ((hash ^ (hash >>> 16)) & mask) * STRIDE;
+        while (true) {
+            long now = System.nanoTime();
+            long current = fullAt.get(index);
+            long next = (current - now > 0 ? current : now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(index, current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package the.husky.onlineshoprest.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// A gradient limit: it follows the ratio between the endpoint's long-term average latency and the latest
+// one. Latency climbing above the average means requests have started to queue for threads or connections,
+// and the limit shrinks before that queue gets long; while latency holds, a sqrt(limit) allowance lets it
+// probe upwards. Each endpoint is measured against itself, so a scan that always takes seconds is not
+// mistaken for congestion.
+final class ConcurrencyLimiter {
+    // Samples the long-term average spans, about.
+    private static final double LONG_WINDOW = 500;
+    // Latency may reach this multiple of the average before the limit gives way.
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+    // Both guarded by this.
+    private double estimatedLimit;
+    private double longLatencyNanos;
+
+    ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    void release(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        update(Math.max(1, latencyNanos), inFlightBefore);
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long latencyNanos, int inFlightBefore) {
+        longLatencyNanos = longLatencyNanos == 0
+                ? latencyNanos
+                : longLatencyNanos + (latencyNanos - longLatencyNanos) / LONG_WINDOW;
+        // An overload leaves the average high once it is over, pull it back so it can't hide the next one.
+        if (longLatencyNanos > 2 * latencyNanos) {
+            longLatencyNanos *= 0.95;
+        }
+        // A limit that isn't what holds requests back learns nothing from them, and would drift without bound.
+        if (inFlightBefore * 2 < estimatedLimit) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longLatencyNanos / latencyNanos));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+                estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING));
+        limit = (int) estimatedLimit;
+    }
+}
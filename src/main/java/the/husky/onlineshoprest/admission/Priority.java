@@ -0,0 +1,16 @@
+package the.husky.onlineshoprest.admission;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// The share of shop.admission.max-concurrency a class may fill. Lower classes run out of room first, so
+// under load full scans are turned away while point lookups still get through.
+@Getter
+@RequiredArgsConstructor
+public enum Priority {
+    LOOKUP(1.0),
+    STANDARD(0.75),
+    SCAN(0.25);
+
+    private final double share;
+}
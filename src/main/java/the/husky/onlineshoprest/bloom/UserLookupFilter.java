@@ -0,0 +1,221 @@
+package the.husky.onlineshoprest.bloom;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import the.husky.onlineshoprest.changes.ChangeFeed;
+import the.husky.onlineshoprest.dto.Change;
+import the.husky.onlineshoprest.dto.UserLogin;
+import the.husky.onlineshoprest.repository.ChangeLogRepository;
+import the.husky.onlineshoprest.repository.UserStreamRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+// Users written through this node are put right away, the ones written anywhere else (another node, the
+// reactive stack, plain SQL) arrive through the change feed a poll or two after they commit. Until then
+// a miss proves nothing, so it is only trusted while no user change is left to follow. Without the feed,
+// or while following it fails, lookups go to the database.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserLookupFilter implements MeterBinder {
+    private static final String METRIC_PREFIX = "shop.users.lookup.filter";
+    private static final int FOLLOW_PAGE_SIZE = 1000;
+
+    private final UserStreamRepository userStreamRepository;
+    private final ChangeLogRepository changeLogRepository;
+    private final ChangeFeed changeFeed;
+    private final UserLookupFilterProperties properties;
+    private final TaskScheduler taskScheduler;
+
+    private final LongAdder staleEntries = new LongAdder();
+    private final LongAdder absentLogins = new LongAdder();
+    private final LongAdder absentEmails = new LongAdder();
+    private final Object buildLock = new Object();
+    private volatile Filters current;
+    private volatile Filters building;
+    private volatile boolean following;
+    private volatile long followedSeq;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        if (!changeFeed.isAvailable()) {
+            log.warn("User lookup filter not used, without the change feed it can't learn of users written elsewhere");
+            return;
+        }
+        // Read before the build: whatever is sequenced after it is followed, whatever was before is built in.
+        followedSeq = changeLogRepository.lastSeq();
+        build();
+        following = true;
+        Duration interval = properties.rebuildInterval();
+        taskScheduler.scheduleWithFixedDelay(this::rebuildIfStale, Instant.now().plus(interval), interval);
+        taskScheduler.scheduleWithFixedDelay(this::follow, properties.followInterval());
+    }
+
+    public void build() {
+        synchronized (buildLock) {
+            long started = System.nanoTime();
+            long stale = staleEntries.sum();
+            Filters previous = current;
+            long expectedInsertions = previous == null
+                    ? properties.expectedInsertions()
+                    : Math.max(properties.expectedInsertions(), 2 * previous.logins().insertions());
+            Filters next = new Filters(
+                    BloomFilter.create(expectedInsertions, properties.falsePositiveProbability()),
+                    BloomFilter.create(expectedInsertions, properties.falsePositiveProbability()));
+            building = next;
+            userStreamRepository.streamLoginsAndEmails(next::put);
+            current = next;
+            building = null;
+            staleEntries.add(-stale);
+            log.info("User lookup filter built with {} users, {} bits and {} hashes in {} ms",
+                    next.logins().insertions(), next.logins().bitCount(), next.logins().hashCount(),
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    // Bloom filters can't forget a value, so removed logins and emails only go away with a rebuild.
+    private void rebuildIfStale() {
+        Filters filters = current;
+        if (filters != null && (staleEntries.sum() > 0
+                || filters.logins().insertions() > properties.expectedInsertions())) {
+            build();
+        }
+    }
+
+    private void follow() {
+        try {
+            List<Change<UserLogin>> page;
+            do {
+                page = changeLogRepository.findUserLoginChanges(followedSeq, FOLLOW_PAGE_SIZE);
+                for (Change<UserLogin> change : page) {
+                    if (change.isDeleted()) {
+                        markStale();
+                    } else {
+                        put(change.getData().login(), change.getData().email());
+                    }
+                }
+                // Moved only once the page is in the filter, a miss that sees it has nothing more to wait for.
+                if (!page.isEmpty()) {
+                    followedSeq = page.get(page.size() - 1).getSeq();
+                }
+            } while (page.size() == FOLLOW_PAGE_SIZE);
+            following = true;
+        } catch (RuntimeException e) {
+            // Thrown out of a scheduled task it would cancel every later run.
+            if (following) {
+                log.warn("Following user changes failed, lookups go to the database meanwhile: {}", e.toString());
+            }
+            following = false;
+        }
+    }
+
+    // Called both before and after a write: before so a committed row is never reported absent,
+    // after so a rebuild that started in between can't miss it.
+    public void put(String login, String email) {
+        Filters filters = building;
+        if (filters != null) {
+            filters.put(login, email);
+        }
+        filters = current;
+        if (filters != null) {
+            filters.put(login, email);
+        }
+    }
+
+    public void markStale() {
+        staleEntries.increment();
+    }
+
+    public boolean mightContainLogin(String login) {
+        Filters filters = current;
+        if (filters == null || !following || login == null || filters.logins().mightContain(login)
+                || !isCaughtUp()) {
+            return true;
+        }
+        absentLogins.increment();
+        return false;
+    }
+
+    public boolean mightContainEmail(String email) {
+        Filters filters = current;
+        if (filters == null || !following || email == null || filters.emails().mightContain(email)
+                || !isCaughtUp()) {
+            return true;
+        }
+        absentEmails.increment();
+        return false;
+    }
+
+    // Two probes of the change log indexes, checked only on a miss. A user committed before the lookup
+    // either is in the filter or still has its entry beyond the followed seq, sequenced or not.
+    private boolean isCaughtUp() {
+        return !changeLogRepository.hasUserChangesAfter(followedSeq);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindFilter(registry, "login", Filters::logins);
+        bindFilter(registry, "email", Filters::emails);
+        FunctionCounter.builder(METRIC_PREFIX + ".absent", absentLogins, LongAdder::sum)
+                .description("Lookups answered as absent without a query")
+                .tag("field", "login")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".absent", absentEmails, LongAdder::sum)
+                .description("Lookups answered as absent without a query")
+                .tag("field", "email")
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".stale", staleEntries, LongAdder::sum)
+                .description("Removed or replaced values still set in the filter")
+                .register(registry);
+    }
+
+    private void bindFilter(MeterRegistry registry, String field, Function<Filters, BloomFilter> filter) {
+        gauge(registry, "memory", field, "bytes", filters -> filter.apply(filters).bitCount() / 8.0);
+        gauge(registry, "insertions", field, null, filters -> filter.apply(filters).insertions());
+        gauge(registry, "hashes", field, null, filters -> filter.apply(filters).hashCount());
+        gauge(registry, "false.positive.probability", field, null,
+                filters -> properties.falsePositiveProbability(), "kind", "configured");
+        gauge(registry, "false.positive.probability", field, null,
+                filters -> filter.apply(filters).estimatedFalsePositiveProbability(), "kind", "estimated");
+    }
+
+    private void gauge(MeterRegistry registry, String name, String field, String baseUnit,
+                       ToDoubleFunction<Filters> value, String... tags) {
+        Gauge.builder(METRIC_PREFIX + "." + name, this, lookupFilter -> {
+                    Filters filters = lookupFilter.current;
+                    return filters == null ? Double.NaN : value.applyAsDouble(filters);
+                })
+                .baseUnit(baseUnit)
+                .tag("field", field)
+                .tags(tags)
+                .register(registry);
+    }
+
+    private record Filters(BloomFilter logins, BloomFilter emails) {
+
+        void put(String login, String email) {
+            if (login != null) {
+                logins.put(login);
+            }
+            if (email != null) {
+                emails.put(email);
+            }
+        }
+    }
+}
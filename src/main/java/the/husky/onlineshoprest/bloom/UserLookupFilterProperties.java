@@ -0,0 +1,14 @@
+package the.husky.onlineshoprest.bloom;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "shop.users.lookup-filter")
+public record UserLookupFilterProperties(@DefaultValue("true") boolean enabled,
+                                         @DefaultValue("1000000") long expectedInsertions,
+                                         @DefaultValue("0.01") double falsePositiveProbability,
+                                         @DefaultValue("1h") Duration rebuildInterval,
+                                         @DefaultValue("500ms") Duration followInterval) {
+}
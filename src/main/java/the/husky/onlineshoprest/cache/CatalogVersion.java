@@ -0,0 +1,36 @@
+package the.husky.onlineshoprest.cache;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import the.husky.onlineshoprest.event.ItemDeletedEvent;
+import the.husky.onlineshoprest.event.ItemSavedEvent;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Changes whenever any item changes, here or on another node. Writes bump it after they commit,
+// so a revision read before a query can only be older than the data it ends up labelling.
+@Component
+public class CatalogVersion {
+    // Counters restart with the process and differ between nodes, the epoch keeps their revisions apart.
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong counter = new AtomicLong();
+
+    public CatalogVersion(ItemCacheInvalidationChannel invalidationChannel) {
+        invalidationChannel.subscribe(invalidation -> counter.incrementAndGet());
+    }
+
+    @EventListener
+    public void onItemSaved(ItemSavedEvent event) {
+        counter.incrementAndGet();
+    }
+
+    @EventListener
+    public void onItemDeleted(ItemDeletedEvent event) {
+        counter.incrementAndGet();
+    }
+
+    public String current() {
+        return epoch + "-" + counter.get();
+    }
+}
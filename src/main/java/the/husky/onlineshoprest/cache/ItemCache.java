@@ -0,0 +1,99 @@
+package the.husky.onlineshoprest.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import the.husky.onlineshoprest.dto.CacheStatistics;
+import the.husky.onlineshoprest.dto.Item;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+@Component
+public class ItemCache implements MeterBinder {
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AsyncCache<Long, Item> asyncCache;
+    private final Cache<Long, Item> cache;
+    private final ItemCacheInvalidationChannel invalidationChannel;
+
+    public ItemCache(ItemCacheProperties properties, ItemCacheInvalidationChannel invalidationChannel) {
+        this.asyncCache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .buildAsync();
+        this.cache = asyncCache.synchronous();
+        this.invalidationChannel = invalidationChannel;
+        invalidationChannel.subscribe(this::onInvalidation);
+    }
+
+    public Item get(long itemId, Function<Long, Item> loader) {
+        return cache.get(itemId, loader);
+    }
+
+    public Map<Long, Item> getAll(Collection<Long> itemIds, Function<Set<? extends Long>, Map<Long, Item>> loader) {
+        return cache.getAll(itemIds, loader);
+    }
+
+    public Item getIfPresent(long itemId) {
+        return cache.getIfPresent(itemId);
+    }
+
+    // The pending load is the entry until it completes. An edit or delete in between replaces or removes
+    // it, so a load that read the row before them is handed to its callers but never kept.
+    public CompletableFuture<Item> getAsync(long itemId, Function<Long, CompletableFuture<Item>> loader) {
+        return asyncCache.get(itemId, (key, executor) -> loader.apply(key));
+    }
+
+    public void put(Item item) {
+        cache.put(item.getItemId(), item);
+        invalidationChannel.publish(new ItemInvalidation(nodeId, item.getItemId()));
+    }
+
+    public void invalidate(long itemId) {
+        cache.invalidate(itemId);
+        invalidationChannel.publish(new ItemInvalidation(nodeId, itemId));
+    }
+
+    // Rows inserted past the cache, by a JDBC batch, aren't cached anywhere yet. The other nodes still have
+    // to hear of them, or their lists and catalog revision would go on without the new rows.
+    public void invalidateOthers() {
+        invalidationChannel.publish(ItemInvalidation.all(nodeId));
+    }
+
+    public CacheStatistics getStatistics() {
+        CacheStats stats = cache.stats();
+        return CacheStatistics.builder()
+                .size(cache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "items");
+    }
+
+    private void onInvalidation(ItemInvalidation invalidation) {
+        if (nodeId.equals(invalidation.origin())) {
+            return;
+        }
+        if (invalidation.isAll()) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(invalidation.itemId());
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package the.husky.onlineshoprest.cache;
+
+import java.util.function.Consumer;
+
+public interface ItemCacheInvalidationChannel {
+    void publish(ItemInvalidation invalidation);
+
+    void subscribe(Consumer<ItemInvalidation> listener);
+}
@@ -0,0 +1,16 @@
+package the.husky.onlineshoprest.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "shop.cache.items")
+public record ItemCacheProperties(@DefaultValue("10000") long maximumSize,
+                                  @DefaultValue("10m") Duration ttl,
+                                  @DefaultValue("local") InvalidationMode invalidation) {
+
+    public enum InvalidationMode {
+        LOCAL, POSTGRES
+    }
+}
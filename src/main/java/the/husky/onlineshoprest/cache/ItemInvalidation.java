@@ -0,0 +1,12 @@
+package the.husky.onlineshoprest.cache;
+
+public record ItemInvalidation(String origin, Long itemId) {
+
+    public static ItemInvalidation all(String origin) {
+        return new ItemInvalidation(origin, null);
+    }
+
+    public boolean isAll() {
+        return itemId == null;
+    }
+}
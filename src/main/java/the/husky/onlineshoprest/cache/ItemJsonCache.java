@@ -0,0 +1,96 @@
+package the.husky.onlineshoprest.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import the.husky.onlineshoprest.dto.SerializedItem;
+import the.husky.onlineshoprest.dto.TaggedItem;
+import the.husky.onlineshoprest.event.ItemDeletedEvent;
+import the.husky.onlineshoprest.event.ItemSavedEvent;
+
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+
+// Holds response bodies as ready-to-write JSON, so a hit costs neither a DTO nor a serializer pass.
+// Entries are keyed by the revision they were rendered from and are never served for another one;
+// the write events only free the memory early.
+@Component
+public class ItemJsonCache implements MeterBinder {
+    private final Cache<Long, SerializedItem> items;
+    private final Cache<String, byte[]> results;
+    private final ObjectWriter writer;
+
+    public ItemJsonCache(ItemJsonCacheProperties properties, ObjectMapper objectMapper,
+                         ItemCacheInvalidationChannel invalidationChannel) {
+        this.items = Caffeine.newBuilder()
+                .maximumWeight(properties.itemsMaximumSize().toBytes())
+                .<Long, SerializedItem>weigher((itemId, serializedItem) -> serializedItem.json().length)
+                .recordStats()
+                .build();
+        this.results = Caffeine.newBuilder()
+                .maximumWeight(properties.resultsMaximumSize().toBytes())
+                .<String, byte[]>weigher((key, json) -> key.length() + json.length)
+                .recordStats()
+                .build();
+        this.writer = objectMapper.writer();
+        invalidationChannel.subscribe(this::onInvalidation);
+    }
+
+    public SerializedItem serialize(TaggedItem taggedItem) {
+        long itemId = taggedItem.item().getItemId();
+        SerializedItem serializedItem = items.getIfPresent(itemId);
+        if (serializedItem == null || !serializedItem.revision().equals(taggedItem.revision())) {
+            serializedItem = new SerializedItem(taggedItem.revision(), write(taggedItem.item()));
+            items.put(itemId, serializedItem);
+        }
+        return serializedItem;
+    }
+
+    // The catalog revision has to be read before the result is, so an entry is never older than its key.
+    public byte[] serialize(String catalogRevision, String query, Supplier<?> result) {
+        return results.get(catalogRevision + ":" + query, key -> write(result.get()));
+    }
+
+    // Serializes without keeping the result.
+    public byte[] write(Object value) {
+        try {
+            return writer.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @EventListener
+    public void onItemSaved(ItemSavedEvent event) {
+        items.invalidate(event.item().getItemId());
+        results.invalidateAll();
+    }
+
+    @EventListener
+    public void onItemDeleted(ItemDeletedEvent event) {
+        items.invalidate(event.itemId());
+        results.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, items, "item-json");
+        CaffeineCacheMetrics.monitor(registry, results, "item-result-json");
+    }
+
+    private void onInvalidation(ItemInvalidation invalidation) {
+        if (invalidation.isAll()) {
+            items.invalidateAll();
+        } else {
+            items.invalidate(invalidation.itemId());
+        }
+        results.invalidateAll();
+    }
+}
@@ -0,0 +1,10 @@
+package the.husky.onlineshoprest.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+@ConfigurationProperties(prefix = "shop.cache.item-json")
+public record ItemJsonCacheProperties(@DefaultValue("32MB") DataSize itemsMaximumSize,
+                                      @DefaultValue("32MB") DataSize resultsMaximumSize) {
+}
@@ -0,0 +1,24 @@
+package the.husky.onlineshoprest.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+@Component
+@ConditionalOnProperty(prefix = "shop.cache.items", name = "invalidation", havingValue = "local", matchIfMissing = true)
+public class LocalItemCacheInvalidationChannel implements ItemCacheInvalidationChannel {
+    private final List<Consumer<ItemInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(ItemInvalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    @Override
+    public void subscribe(Consumer<ItemInvalidation> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,117 @@
+package the.husky.onlineshoprest.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "shop.cache.items", name = "invalidation", havingValue = "postgres")
+public class PostgresItemCacheInvalidationChannel implements ItemCacheInvalidationChannel {
+    private static final String CHANNEL = "item_cache_invalidation";
+    private static final String ALL_ITEMS = "*";
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final List<Consumer<ItemInvalidation>> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @Override
+    public void publish(ItemInvalidation invalidation) {
+        String itemId = invalidation.isAll() ? ALL_ITEMS : String.valueOf(invalidation.itemId());
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class,
+                CHANNEL, invalidation.origin() + ":" + itemId);
+    }
+
+    @Override
+    public void subscribe(Consumer<ItemInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "item-cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        listenerThread.interrupt();
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = openConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Anything published while we were disconnected is lost, so start from a clean cache.
+                dispatch(ItemInvalidation.all(null));
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(parse(notification.getParameter()));
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.error("Error during listening for item cache invalidations, reconnecting", e);
+                sleepBeforeReconnect();
+            }
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+    }
+
+    private ItemInvalidation parse(String payload) {
+        int separator = payload.lastIndexOf(':');
+        String origin = payload.substring(0, separator);
+        String itemId = payload.substring(separator + 1);
+        return ALL_ITEMS.equals(itemId)
+                ? ItemInvalidation.all(origin)
+                : new ItemInvalidation(origin, Long.parseLong(itemId));
+    }
+
+    private void dispatch(ItemInvalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package the.husky.onlineshoprest.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import the.husky.onlineshoprest.entity.ItemEntity;
+import the.husky.onlineshoprest.event.ItemDeletedEvent;
+import the.husky.onlineshoprest.event.ItemSavedEvent;
+
+// Native updates, JDBC batches, write-behind flushes and other nodes all change rows without Hibernate
+// noticing, so its second-level and query caches follow the same invalidations as ItemCache.
+@Component
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.cache.use_second_level_cache", havingValue = "true")
+public class SecondLevelCacheEviction {
+    private final Cache cache;
+
+    public SecondLevelCacheEviction(EntityManagerFactory entityManagerFactory,
+                                    ItemCacheInvalidationChannel invalidationChannel) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        invalidationChannel.subscribe(this::onInvalidation);
+    }
+
+    @EventListener
+    public void onItemSaved(ItemSavedEvent event) {
+        evict(event.item().getItemId());
+    }
+
+    @EventListener
+    public void onItemDeleted(ItemDeletedEvent event) {
+        evict(event.itemId());
+    }
+
+    private void onInvalidation(ItemInvalidation invalidation) {
+        if (invalidation.isAll()) {
+            cache.evictEntityData(ItemEntity.class);
+            cache.evictQueryRegions();
+        } else {
+            evict(invalidation.itemId());
+        }
+    }
+
+    private void evict(long itemId) {
+        cache.evictEntityData(ItemEntity.class, itemId);
+        cache.evictQueryRegions();
+    }
+}
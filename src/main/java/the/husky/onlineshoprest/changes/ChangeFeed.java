@@ -0,0 +1,159 @@
+package the.husky.onlineshoprest.changes;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import the.husky.onlineshoprest.dto.Change;
+import the.husky.onlineshoprest.dto.ChangePage;
+import the.husky.onlineshoprest.dto.Item;
+import the.husky.onlineshoprest.dto.User;
+import the.husky.onlineshoprest.repository.ChangeLogRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Sequences and compacts the change log on a thread of its own and pushes it to the SSE subscribers from
+// another: reading the pages for the streams can take a while, and that shouldn't delay the sequencing.
+// The sends go to a pool of their own, where a thread stuck on a stalled connection holds up no one else.
+@Slf4j
+@Component
+public class ChangeFeed {
+    private final ChangeLogRepository changeLogRepository;
+    private final ChangeLogMigration changeLogMigration;
+    private final ChangeFeedProperties properties;
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("change-feed-"));
+    private final ScheduledExecutorService streamExecutor =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("change-stream-"));
+    // At most one send runs per subscriber, so there are never more threads than subscribers.
+    private final ExecutorService sender =
+            Executors.newCachedThreadPool(new CustomizableThreadFactory("change-stream-send-"));
+    private final ChangeStream<Item> items;
+    private final ChangeStream<User> users;
+
+    public ChangeFeed(ChangeLogRepository changeLogRepository, ChangeLogMigration changeLogMigration,
+                      ChangeFeedProperties properties, MeterRegistry meterRegistry) {
+        this.changeLogRepository = changeLogRepository;
+        this.changeLogMigration = changeLogMigration;
+        this.properties = properties;
+        this.items = new ChangeStream<>("item", this::readItemChanges, changeLogRepository::lastSeq, sender,
+                properties);
+        this.users = new ChangeStream<>("user", this::readUserChanges, changeLogRepository::lastSeq, sender,
+                properties);
+        Gauge.builder("shop.changes.subscribers", items, ChangeStream::subscriberCount)
+                .description("Open change streams")
+                .tag("entity", "items")
+                .register(meterRegistry);
+        Gauge.builder("shop.changes.subscribers", users, ChangeStream::subscriberCount)
+                .description("Open change streams")
+                .tag("entity", "users")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!isAvailable()) {
+            return;
+        }
+        long pollMillis = properties.pollInterval().toMillis();
+        long compactMillis = properties.compactInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::sequence, 0, pollMillis, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::compact, compactMillis, compactMillis, TimeUnit.MILLISECONDS);
+        streamExecutor.scheduleWithFixedDelay(this::poll, 0, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+        streamExecutor.shutdownNow();
+        sender.shutdownNow();
+    }
+
+    public boolean isAvailable() {
+        return changeLogMigration.isInstalled();
+    }
+
+    public ChangePage<Item> getItemChanges(long since, int limit) {
+        return page(changeLogRepository.findItemChanges(since, limit), since, limit);
+    }
+
+    public ChangePage<User> getUserChanges(long since, int limit) {
+        return page(changeLogRepository.findUserChanges(since, limit), since, limit);
+    }
+
+    public SseEmitter streamItemChanges(Long since) {
+        return items.subscribe(since);
+    }
+
+    public SseEmitter streamUserChanges(Long since) {
+        return users.subscribe(since);
+    }
+
+    private void sequence() {
+        try {
+            changeLogRepository.sequence();
+        } catch (RuntimeException e) {
+            // Thrown out of a scheduled task it would cancel every later run.
+            log.warn("Change log sequencing failed: {}", e.toString());
+        }
+    }
+
+    private void poll() {
+        try {
+            items.poll();
+            users.poll();
+        } catch (RuntimeException e) {
+            log.warn("Change feed poll failed: {}", e.toString());
+        }
+    }
+
+    private void compact() {
+        try {
+            long started = System.nanoTime();
+            int removed = changeLogRepository.compact();
+            log.info("Change log compacted, {} superseded entries removed in {} ms", removed,
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Change log compaction failed: {}", e.toString());
+        }
+    }
+
+    private List<Change<Item>> readItemChanges(long since, int limit) {
+        return latestOnly(changeLogRepository.findItemChanges(since, limit));
+    }
+
+    private List<Change<User>> readUserChanges(long since, int limit) {
+        return latestOnly(changeLogRepository.findUserChanges(since, limit));
+    }
+
+    // Rows carry their current state, so a row changed twice within a page only needs its last entry.
+    // That one has the page's highest seq for the row, so the page still ends where the query did.
+    private static <T> List<Change<T>> latestOnly(List<Change<T>> changes) {
+        Map<Long, Change<T>> latest = new LinkedHashMap<>();
+        for (Change<T> change : changes) {
+            latest.remove(change.getId());
+            latest.put(change.getId(), change);
+        }
+        return latest.size() == changes.size() ? changes : new ArrayList<>(latest.values());
+    }
+
+    private static <T> ChangePage<T> page(List<Change<T>> changes, long since, int limit) {
+        return ChangePage.<T>builder()
+                .changes(latestOnly(changes))
+                .nextSince(changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq())
+                .hasMore(changes.size() == limit)
+                .build();
+    }
+}
@@ -0,0 +1,16 @@
+package the.husky.onlineshoprest.changes;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "shop.changes")
+public record ChangeFeedProperties(@DefaultValue("true") boolean enabled,
+                                   @DefaultValue("500ms") Duration pollInterval,
+                                   @DefaultValue("1h") Duration compactInterval,
+                                   @DefaultValue("30m") Duration streamTimeout,
+                                   @DefaultValue("15s") Duration heartbeatInterval,
+                                   @DefaultValue("10s") Duration sendTimeout,
+                                   @DefaultValue("false") boolean removeTriggers) {
+}
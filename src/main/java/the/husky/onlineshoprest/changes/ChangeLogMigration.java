@@ -0,0 +1,124 @@
+package the.husky.onlineshoprest.changes;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+// Triggers write every insert, update and delete on items and users to change_log, whichever way it
+// arrives: JPA, the patch and bulk statements, the write-behind flush, R2DBC or plain SQL. The rows
+// get their feed sequence later, from ChangeLogRepository.sequence().
+@Slf4j
+@Component
+public class ChangeLogMigration {
+    // Table to the id column its trigger records.
+    private static final Map<String, String> TABLES = Map.of("items", "item_id", "users", "user_id");
+    private static final String CREATE_TABLE = """
+            CREATE TABLE change_log (
+                id bigserial PRIMARY KEY,
+                seq bigint UNIQUE,
+                entity varchar(16) NOT NULL,
+                entity_id bigint NOT NULL,
+                xid xid8 NOT NULL DEFAULT pg_current_xact_id(),
+                changed_at timestamptz NOT NULL DEFAULT now())""";
+    private static final String[] CREATE_INDEXES = {
+            "CREATE INDEX idx_change_log_pending ON change_log (xid, id) WHERE seq IS NULL",
+            "CREATE INDEX idx_change_log_entity_seq ON change_log (entity, seq) WHERE seq IS NOT NULL",
+            "CREATE INDEX idx_change_log_entity_id ON change_log (entity, entity_id, seq)"};
+    private static final String CREATE_FUNCTION = """
+            CREATE OR REPLACE FUNCTION %1$s_record_change() RETURNS trigger LANGUAGE plpgsql AS $$
+            BEGIN
+                IF TG_OP = 'DELETE' THEN
+                    INSERT INTO change_log (entity, entity_id) VALUES ('%1$s', OLD.%2$s);
+                ELSE
+                    INSERT INTO change_log (entity, entity_id) VALUES ('%1$s', NEW.%2$s);
+                END IF;
+                RETURN NULL;
+            END $$""";
+    private static final String CREATE_TRIGGER = "CREATE OR REPLACE TRIGGER %1$s_change_log"
+            + " AFTER INSERT OR UPDATE OR DELETE ON %1$s FOR EACH ROW EXECUTE FUNCTION %1$s_record_change()";
+    private static final String TRIGGER_EXISTS = "SELECT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeFeedProperties properties;
+    private volatile boolean installed;
+
+    // Depending on the EntityManagerFactory makes this run after Hibernate has updated the schema.
+    public ChangeLogMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              EntityManagerFactory entityManagerFactory, ChangeFeedProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        if (properties.removeTriggers()) {
+            // Stops change capture for every node on this database, not just this one.
+            TABLES.keySet().forEach(table -> jdbcTemplate.execute(
+                    "DROP TRIGGER IF EXISTS " + table + "_change_log ON " + table));
+            log.warn("Change log triggers removed, the change feed no longer records writes on any node");
+            return;
+        }
+        // The triggers are shared by all nodes, one that doesn't serve the feed leaves them to the others.
+        if (!properties.enabled()) {
+            return;
+        }
+        if (isComplete()) {
+            installed = true;
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            // Writes can't slip in between the triggers and the backfill, or past both.
+            jdbcTemplate.execute("LOCK TABLE " + String.join(", ", TABLES.keySet()) + " IN SHARE ROW EXCLUSIVE MODE");
+            boolean created = jdbcTemplate.queryForObject("SELECT to_regclass('change_log') IS NULL", Boolean.class);
+            if (created) {
+                jdbcTemplate.execute(CREATE_TABLE);
+                for (String index : CREATE_INDEXES) {
+                    jdbcTemplate.execute(index);
+                }
+            }
+            TABLES.forEach((table, idColumn) -> {
+                boolean triggered = jdbcTemplate.queryForObject(TRIGGER_EXISTS, Boolean.class, table + "_change_log");
+                jdbcTemplate.execute(String.format(CREATE_FUNCTION, table, idColumn));
+                jdbcTemplate.execute(String.format(CREATE_TRIGGER, table));
+                if (!triggered) {
+                    // Every existing row enters the log once, so since=0 doubles as the initial full sync.
+                    int rows = jdbcTemplate.update("INSERT INTO change_log (entity, entity_id)"
+                            + " SELECT '" + table + "', " + idColumn + " FROM " + table + " ORDER BY " + idColumn);
+                    if (!created) {
+                        log.warn("Change log for {} resumed after it was disabled, deletes made meanwhile"
+                                + " are missing from it", table);
+                    }
+                    log.info("Change log for {} started with {} existing rows", table, rows);
+                }
+            });
+        });
+        installed = true;
+    }
+
+    public boolean isInstalled() {
+        return installed;
+    }
+
+    // Usually everything is in place already, and then nothing is worth locking the tables for.
+    private boolean isComplete() {
+        if (jdbcTemplate.queryForObject("SELECT to_regclass('change_log') IS NULL", Boolean.class)) {
+            return false;
+        }
+        return TABLES.keySet().stream().allMatch(table ->
+                jdbcTemplate.queryForObject(TRIGGER_EXISTS, Boolean.class, table + "_change_log"));
+    }
+}
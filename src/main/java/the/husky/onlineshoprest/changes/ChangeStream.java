@@ -0,0 +1,163 @@
+package the.husky.onlineshoprest.changes;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import the.husky.onlineshoprest.dto.Change;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+// Pushes one table's changes to its SSE subscribers. The poll reads the pages, subscribers that are up to
+// date share one query per poll, a subscriber catching up from an old seq reads its own pages until it is
+// level. Sending happens on the sender executor, one task per subscriber at a time, so a subscriber on a
+// stalled connection only holds up itself. One still sending when the send timeout runs out is dropped.
+@Slf4j
+final class ChangeStream<T> {
+    private static final int PAGE_SIZE = 1000;
+    // Keeps one poll from being spent on a single subscriber far behind.
+    private static final int MAX_PAGES_PER_POLL = 10;
+
+    private final String name;
+    private final ChangeReader<T> reader;
+    private final LongSupplier lastSeq;
+    private final Executor sender;
+    private final Duration timeout;
+    private final Duration heartbeatInterval;
+    private final Duration sendTimeout;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    ChangeStream(String name, ChangeReader<T> reader, LongSupplier lastSeq, Executor sender,
+                 ChangeFeedProperties properties) {
+        this.name = name;
+        this.reader = reader;
+        this.lastSeq = lastSeq;
+        this.sender = sender;
+        this.timeout = properties.streamTimeout();
+        this.heartbeatInterval = properties.heartbeatInterval();
+        this.sendTimeout = properties.sendTimeout();
+    }
+
+    // Without a seq the subscriber only gets what changes from now on.
+    SseEmitter subscribe(Long since) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, since == null ? lastSeq.getAsLong() : since);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    void poll() {
+        Map<Long, List<Change<T>>> pages = new HashMap<>();
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.sending.compareAndSet(false, true)) {
+                if (now - subscriber.sendingSince > sendTimeout.toNanos()) {
+                    drop(subscriber);
+                }
+                continue;
+            }
+            // The cursor only moves in a send, and there is none running for this subscriber now.
+            List<Change<T>> changes = new ArrayList<>();
+            long cursor = subscriber.cursor;
+            for (int i = 0; i < MAX_PAGES_PER_POLL; i++) {
+                List<Change<T>> page = pages.computeIfAbsent(cursor, since -> reader.read(since, PAGE_SIZE));
+                changes.addAll(page);
+                if (page.size() < PAGE_SIZE) {
+                    break;
+                }
+                cursor = page.get(page.size() - 1).getSeq();
+            }
+            // A keep-alive is also how a subscriber that went away is noticed while nothing changes.
+            if (changes.isEmpty() && now - subscriber.lastSentAt <= heartbeatInterval.toNanos()) {
+                subscriber.sending.set(false);
+                continue;
+            }
+            subscriber.sendingSince = now;
+            try {
+                sender.execute(() -> deliver(subscriber, changes));
+            } catch (RejectedExecutionException e) {
+                subscriber.sending.set(false);
+            }
+        }
+    }
+
+    private void deliver(Subscriber subscriber, List<Change<T>> changes) {
+        try {
+            if (changes.isEmpty()) {
+                send(subscriber, SseEmitter.event().comment("keep-alive"));
+                return;
+            }
+            for (Change<T> change : changes) {
+                boolean sent = send(subscriber, SseEmitter.event()
+                        .id(Long.toString(change.getSeq()))
+                        .name(name)
+                        .data(change, MediaType.APPLICATION_JSON));
+                if (!sent) {
+                    return;
+                }
+                subscriber.cursor = change.getSeq();
+            }
+        } finally {
+            subscriber.sending.set(false);
+        }
+    }
+
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+            subscriber.lastSentAt = System.nanoTime();
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // The container completes the emitter of a broken connection itself.
+            log.debug("Dropping {} change subscriber: {}", name, e.toString());
+            subscribers.remove(subscriber);
+            return false;
+        }
+    }
+
+    // Completing waits for the send that is stuck, so it can't happen on the polling thread.
+    private void drop(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            log.info("Dropping {} change subscriber, a send has not finished in {}", name, sendTimeout);
+            try {
+                sender.execute(subscriber.emitter::complete);
+            } catch (RejectedExecutionException e) {
+                log.debug("Not completing dropped {} change subscriber: {}", name, e.toString());
+            }
+        }
+    }
+
+    interface ChangeReader<T> {
+        List<Change<T>> read(long since, int limit);
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long cursor;
+        private volatile long lastSentAt = System.nanoTime();
+        private volatile long sendingSince;
+
+        private Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    }
+}
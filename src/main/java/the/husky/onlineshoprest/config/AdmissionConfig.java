@@ -0,0 +1,32 @@
+package the.husky.onlineshoprest.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import the.husky.onlineshoprest.admission.AdmissionInterceptor;
+import the.husky.onlineshoprest.admission.AdmissionProperties;
+
+@Configuration
+@Profile("!reactive")
+@RequiredArgsConstructor
+public class AdmissionConfig implements WebMvcConfigurer {
+    private final AdmissionProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    // Checked here rather than with a condition, which an AOT build would settle at build time.
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!properties.enabled()) {
+            return;
+        }
+        registry.addInterceptor(new AdmissionInterceptor(properties, meterRegistry))
+                .addPathPatterns("/items/**", "/users/**")
+                // A change stream stays open for as long as its subscriber listens, it would hold a slot throughout.
+                .excludePathPatterns("/items/changes/stream", "/users/changes/stream")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+}
@@ -0,0 +1,23 @@
+package the.husky.onlineshoprest.config;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
+
+@Configuration
+public class JacksonConfig {
+
+    // Blackbird replaces reflective getter calls with generated lambdas, which is what a serialized-response
+    // cache miss pays for. A native image can't define classes at runtime, there Jackson stays reflective;
+    // checked when the mapper is built because AOT settles bean conditions at build time.
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer blackbirdCustomizer() {
+        return builder -> {
+            if (!NativeDetector.inNativeImage()) {
+                builder.postConfigurer(objectMapper -> objectMapper.registerModule(new BlackbirdModule()));
+            }
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package the.husky.onlineshoprest.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+import the.husky.onlineshoprest.cache.ItemCacheInvalidationChannel;
+import the.husky.onlineshoprest.routing.ReadYourWritesFilter;
+import the.husky.onlineshoprest.routing.ReplicaHealthMonitor;
+import the.husky.onlineshoprest.routing.ReplicaPool;
+import the.husky.onlineshoprest.routing.ReplicaRoutingDataSource;
+import the.husky.onlineshoprest.routing.ReplicaRoutingProperties;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "shop.datasource.routing", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+    private static final String PRIMARY_POOL_NAME = "primary";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName(PRIMARY_POOL_NAME);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             ReplicaRoutingProperties properties) {
+        List<ReplicaPool> replicas = properties.replicas().stream()
+                .map(replica -> new ReplicaPool(replica.name(), replicaDataSource(primaryDataSource, replica,
+                        properties)))
+                .toList();
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaHealthMonitor replicaHealthMonitor(HikariDataSource primaryDataSource,
+                                                     ReplicaRoutingDataSource replicaRoutingDataSource,
+                                                     ReplicaRoutingProperties properties,
+                                                     TaskScheduler taskScheduler,
+                                                     ItemCacheInvalidationChannel invalidationChannel) {
+        ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(primaryDataSource, replicaRoutingDataSource,
+                properties, taskScheduler);
+        invalidationChannel.subscribe(invalidation -> monitor.onRemoteChange());
+        return monitor;
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReplicaRoutingProperties properties) {
+        return new ReadYourWritesFilter(properties.readYourWritesWindow());
+    }
+
+    // Replicas get the primary's pool settings, but fail fast so a dead one costs a read very little.
+    private HikariDataSource replicaDataSource(HikariDataSource primaryDataSource,
+                                               ReplicaRoutingProperties.Replica replica,
+                                               ReplicaRoutingProperties properties) {
+        HikariConfig config = new HikariConfig();
+        primaryDataSource.copyStateTo(config);
+        config.setPoolName(replica.name());
+        config.setJdbcUrl(replica.url());
+        config.setUsername(replica.username());
+        config.setPassword(replica.password());
+        config.setReadOnly(true);
+        config.setConnectionTimeout(properties.connectionTimeout().toMillis());
+        config.setInitializationFailTimeout(-1);
+        config.setMetricRegistry(null);
+        return new HikariDataSource(config);
+    }
+}
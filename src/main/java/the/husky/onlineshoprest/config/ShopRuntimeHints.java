@@ -0,0 +1,52 @@
+package the.husky.onlineshoprest.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import the.husky.onlineshoprest.dto.BatchRequest;
+import the.husky.onlineshoprest.dto.BulkIngestReport;
+import the.husky.onlineshoprest.dto.BulkItemResult;
+import the.husky.onlineshoprest.dto.CacheStatistics;
+import the.husky.onlineshoprest.dto.Change;
+import the.husky.onlineshoprest.dto.ChangePage;
+import the.husky.onlineshoprest.dto.ExistenceCheck;
+import the.husky.onlineshoprest.dto.Item;
+import the.husky.onlineshoprest.dto.ItemBatch;
+import the.husky.onlineshoprest.dto.ItemPage;
+import the.husky.onlineshoprest.dto.ItemPatch;
+import the.husky.onlineshoprest.dto.ItemSearchCriteria;
+import the.husky.onlineshoprest.dto.ItemSearchResult;
+import the.husky.onlineshoprest.dto.ItemStatistics;
+import the.husky.onlineshoprest.dto.LoginRequest;
+import the.husky.onlineshoprest.dto.User;
+import the.husky.onlineshoprest.dto.UserBatch;
+import the.husky.onlineshoprest.dto.UserPatch;
+import the.husky.onlineshoprest.entity.ItemEntity;
+import the.husky.onlineshoprest.entity.UserEntity;
+import the.husky.onlineshoprest.exception.ExceptionEntity;
+import the.husky.onlineshoprest.logging.SamplingTurboFilter;
+
+// What a native image can't find out on its own. Controllers return ResponseEntity<?>, so the AOT engine
+// never sees the bodies Jackson has to bind, and logback and the JCache API load classes by name.
+public class ShopRuntimeHints implements RuntimeHintsRegistrar {
+    private static final Class<?>[] JSON_TYPES = {
+            ItemEntity.class, UserEntity.class, Item.class, User.class, ItemBatch.class, UserBatch.class,
+            ItemPage.class, ItemPatch.class, UserPatch.class, ItemSearchCriteria.class, ItemSearchResult.class,
+            ItemStatistics.class, LoginRequest.class, BatchRequest.class, BulkIngestReport.class,
+            BulkItemResult.class, CacheStatistics.class, Change.class, ChangePage.class, ExistenceCheck.class,
+            ExceptionEntity.class};
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), JSON_TYPES);
+        hints.reflection().registerType(SamplingTurboFilter.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(
+                TypeReference.of("com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider"),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("application.conf");
+        hints.resources().registerPattern("logback-spring.xml");
+    }
+}
@@ -0,0 +1,40 @@
+package the.husky.onlineshoprest.controller;
+
+import the.husky.onlineshoprest.exception.PreconditionFailedException;
+
+final class EntityTags {
+    private static final long UNMATCHABLE_VERSION = -1;
+
+    private EntityTags() {
+    }
+
+    static String of(long version) {
+        return of(String.valueOf(version));
+    }
+
+    static String of(String revision) {
+        return "\"" + revision + "\"";
+    }
+
+    // Tomcat refuses to compress a response carrying a strong tag, and If-None-Match compares weakly anyway.
+    static String weak(String revision) {
+        return "W/" + of(revision);
+    }
+
+    static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        // If-Match compares strongly, a weak tag never matches (RFC 9110, section 13.1.1).
+        if (tag.startsWith("W/")) {
+            throw new PreconditionFailedException("If-Match needs a strong entity tag, got: " + tag);
+        }
+        tag = tag.replace("\"", "");
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            return UNMATCHABLE_VERSION;
+        }
+    }
+}
@@ -1,25 +1,84 @@
 package the.husky.onlineshoprest.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import the.husky.onlineshoprest.admission.AdmissionPriority;
+import the.husky.onlineshoprest.admission.Priority;
 import the.husky.onlineshoprest.entity.ItemEntity;
+import the.husky.onlineshoprest.exception.ChangeFeedUnavailableException;
+import the.husky.onlineshoprest.exception.Problems;
+import the.husky.onlineshoprest.dto.BatchRequest;
+import the.husky.onlineshoprest.dto.BulkIngestReport;
+import the.husky.onlineshoprest.dto.ChangePage;
 import the.husky.onlineshoprest.dto.Item;
+import the.husky.onlineshoprest.dto.ItemBatch;
+import the.husky.onlineshoprest.dto.ItemPatch;
+import the.husky.onlineshoprest.dto.ItemSearchCriteria;
+import the.husky.onlineshoprest.dto.ItemSearchResult;
+import the.husky.onlineshoprest.service.ItemBulkService;
 import the.husky.onlineshoprest.service.ItemService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/items")
 @RequiredArgsConstructor
 public class ItemController {
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final int DEFAULT_PAGE_LIMIT = 100;
+
     private final ItemService itemService;
+    private final ItemBulkService itemBulkService;
+    private final ObjectMapper objectMapper;
+    private final ItemHttpCacheProperties httpCacheProperties;
 
+    @AdmissionPriority(Priority.SCAN)
     @GetMapping("/all")
-    public ResponseEntity<?> getAllItems() {
-        List<Item> items = itemService.getAllItems();
-        return ResponseEntity.ok(items);
+    public ResponseEntity<StreamingResponseBody> getAllItems(WebRequest request) {
+        return catalogResponse(request, "json", MediaType.APPLICATION_JSON,
+                () -> outputStream -> streamItems(outputStream, false));
+    }
+
+    @AdmissionPriority(Priority.SCAN)
+    @GetMapping(value = "/all", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getAllItemsAsNdjson(WebRequest request) {
+        return catalogResponse(request, "ndjson", MediaType.parseMediaType(APPLICATION_NDJSON_VALUE),
+                () -> outputStream -> streamItems(outputStream, true));
+    }
+
+    @GetMapping(value = "/all", params = "limit")
+    public ResponseEntity<?> getItemsPage(@RequestParam(value = "after", defaultValue = "0") long after,
+                                          @RequestParam("limit") int limit,
+                                          WebRequest request) {
+        return catalogResponse(request, () -> itemService.getSerializedItemsAfter(after, limit));
+    }
+
+    // A cursor alone still asks for a page, not for the whole catalog.
+    @GetMapping(value = "/all", params = {"after", "!limit"})
+    public ResponseEntity<?> getItemsPageAfter(@RequestParam("after") long after, WebRequest request) {
+        return getItemsPage(after, DEFAULT_PAGE_LIMIT, request);
     }
 
     @PostMapping("/add")
@@ -28,28 +87,89 @@ public class ItemController {
         return ResponseEntity.ok(item);
     }
 
+    @AdmissionPriority(Priority.SCAN)
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> addItems(InputStream inputStream) {
+        BulkIngestReport report = itemBulkService.appendItems(inputStream);
+        return ResponseEntity.ok(report);
+    }
+
+    // Spring answers a matching If-None-Match with 304 before the body is written.
+    @AdmissionPriority(Priority.LOOKUP)
     @GetMapping("/find/by/{id}")
     public ResponseEntity<?> getItemById(@PathVariable("id") long id) {
-        Item item = itemService.getItemById(id);
-        return ResponseEntity.ok(item);
+        return itemService.findSerializedItemById(id)
+                .<ResponseEntity<?>>map(serializedItem -> ResponseEntity.ok()
+                        .eTag(EntityTags.of(serializedItem.revision()))
+                        .cacheControl(cacheControl())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(serializedItem.json()))
+                .orElseGet(() -> Problems.notFound("Item with id: " + id + " not found"));
     }
 
-    @GetMapping("/filter/by/title/{title}")
-    public ResponseEntity<?> getItemsByTitle(@PathVariable("title") String title) {
-        List<Item> items = itemService.getItemsByTitle(title);
+    @PostMapping("/batch")
+    public ResponseEntity<?> getItemsByIds(@RequestBody @Valid BatchRequest batchRequest) {
+        ItemBatch itemBatch = itemService.getItemsByIds(batchRequest.getIds());
+        return ResponseEntity.ok(itemBatch);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchItems(ItemSearchCriteria criteria, @PageableDefault(size = 20) Pageable pageable) {
+        ItemSearchResult result = itemService.searchItems(criteria, pageable);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/search/text")
+    public ResponseEntity<?> searchItemsByText(@RequestParam("q") String query,
+                                               @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        List<Item> items = itemService.searchItemsByText(query, limit);
         return ResponseEntity.ok(items);
     }
 
+    @GetMapping("/filter/by/title/{title}")
+    public ResponseEntity<?> getItemsByTitle(@PathVariable("title") String title, WebRequest request) {
+        return catalogResponse(request, () -> itemService.getSerializedItemsByTitle(title));
+    }
+
     @GetMapping("/filter/by/price/{price}")
-    public ResponseEntity<?> getItemsByPrice(@PathVariable("price") double price) {
-        List<Item> items = itemService.getItemsByPrice(price);
-        return ResponseEntity.ok(items);
+    public ResponseEntity<?> getItemsByPrice(@PathVariable("price") double price, WebRequest request) {
+        return catalogResponse(request, () -> itemService.getSerializedItemsByPrice(price));
     }
 
     @GetMapping("/filter/by/weight/{weight}")
-    public ResponseEntity<?> getItemsByWeight(@PathVariable("weight") double weight) {
-        List<Item> items = itemService.getItemsByWeight(weight);
-        return ResponseEntity.ok(items);
+    public ResponseEntity<?> getItemsByWeight(@PathVariable("weight") double weight, WebRequest request) {
+        return catalogResponse(request, () -> itemService.getSerializedItemsByWeight(weight));
+    }
+
+    @AdmissionPriority(Priority.LOOKUP)
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStatistics() {
+        return ResponseEntity.ok(itemService.getStatistics());
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<?> getItemChanges(@RequestParam(value = "since", defaultValue = "0") long since,
+                                            @RequestParam(value = "limit", defaultValue = "1000") int limit) {
+        if (!itemService.isChangeFeedAvailable()) {
+            return Problems.notFound("Change feed is not enabled");
+        }
+        ChangePage<Item> changePage = itemService.getChanges(since, limit);
+        return ResponseEntity.ok(changePage);
+    }
+
+    // A reconnecting EventSource sends the id of the last event it got, which is where it has to go on.
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamItemChanges(@RequestParam(value = "since", required = false) Long since,
+                                      @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        if (!itemService.isChangeFeedAvailable()) {
+            throw new ChangeFeedUnavailableException("Change feed is not enabled");
+        }
+        return itemService.streamChanges(lastEventId != null ? lastEventId : since);
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getCacheStatistics() {
+        return ResponseEntity.ok(itemService.getCacheStatistics());
     }
 
     @PostMapping("/edit/{id}")
@@ -58,9 +178,62 @@ public class ItemController {
         return ResponseEntity.ok(item);
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchItem(@PathVariable("id") long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                       @RequestBody @Valid ItemPatch itemPatch) {
+        Item item = itemService.patchItem(id, itemPatch, EntityTags.parseVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(item.getVersion()))
+                .body(item);
+    }
+
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<?> deleteItem(@PathVariable("id") long id) {
         itemService.deleteItem(id);
         return ResponseEntity.ok("Item with id: " + id + " deleted.");
     }
+
+    // The filtered lists arrive as cached JSON and go out as they are.
+    private ResponseEntity<byte[]> catalogResponse(WebRequest request, Supplier<byte[]> body) {
+        return catalogResponse(request, "json", MediaType.APPLICATION_JSON, body);
+    }
+
+    // Lists are tagged with the catalog revision, which is known before any query runs,
+    // so a revalidation that still matches costs neither a query nor serialization.
+    private <T> ResponseEntity<T> catalogResponse(WebRequest request, String representation, MediaType mediaType,
+                                                  Supplier<T> body) {
+        // checkNotModified writes the ETag header for both outcomes.
+        String eTag = EntityTags.weak(itemService.getCatalogRevision() + "-" + representation);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl())
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(mediaType)
+                .body(body.get());
+    }
+
+    private CacheControl cacheControl() {
+        return CacheControl.maxAge(httpCacheProperties.maxAge())
+                .cachePublic();
+    }
+
+    private void streamItems(OutputStream outputStream, boolean ndjson) throws IOException {
+        ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try (SequenceWriter sequenceWriter = ndjson
+                ? writer.withRootValueSeparator("\n").writeValues(outputStream)
+                : writer.writeValuesAsArray(outputStream)) {
+            itemService.streamAllItems(item -> {
+                try {
+                    sequenceWriter.write(item);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
 }
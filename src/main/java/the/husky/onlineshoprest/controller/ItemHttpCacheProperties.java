@@ -0,0 +1,10 @@
+package the.husky.onlineshoprest.controller;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "shop.items.http-cache")
+public record ItemHttpCacheProperties(@DefaultValue("30s") Duration maxAge) {
+}
@@ -2,20 +2,36 @@ package the.husky.onlineshoprest.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import the.husky.onlineshoprest.admission.AdmissionPriority;
+import the.husky.onlineshoprest.admission.Priority;
 import the.husky.onlineshoprest.entity.UserEntity;
+import the.husky.onlineshoprest.exception.ChangeFeedUnavailableException;
+import the.husky.onlineshoprest.exception.Problems;
+import the.husky.onlineshoprest.dto.BatchRequest;
+import the.husky.onlineshoprest.dto.ChangePage;
+import the.husky.onlineshoprest.dto.ExistenceCheck;
+import the.husky.onlineshoprest.dto.LoginRequest;
 import the.husky.onlineshoprest.dto.User;
+import the.husky.onlineshoprest.dto.UserBatch;
+import the.husky.onlineshoprest.dto.UserPatch;
 import the.husky.onlineshoprest.service.UserService;
 
 import java.util.List;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/users")
 @RequiredArgsConstructor
 public class UserController {
     private final UserService userService;
 
+    @AdmissionPriority(Priority.SCAN)
     @GetMapping("/all")
     public ResponseEntity<?> getAllUsers() {
         List<User> users = userService.getAllUsers();
@@ -28,22 +44,80 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    @PostMapping("/login")
+    public ResponseEntity<?> login(@RequestBody @Valid LoginRequest loginRequest) {
+        User user = userService.login(loginRequest.getLogin(), loginRequest.getPassword());
+        return ResponseEntity.ok(user);
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<?> getUserChanges(@RequestParam(value = "since", defaultValue = "0") long since,
+                                            @RequestParam(value = "limit", defaultValue = "1000") int limit) {
+        if (!userService.isChangeFeedAvailable()) {
+            return Problems.notFound("Change feed is not enabled");
+        }
+        ChangePage<User> changePage = userService.getChanges(since, limit);
+        return ResponseEntity.ok(changePage);
+    }
+
+    // A reconnecting EventSource sends the id of the last event it got, which is where it has to go on.
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamUserChanges(@RequestParam(value = "since", required = false) Long since,
+                                      @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        if (!userService.isChangeFeedAvailable()) {
+            throw new ChangeFeedUnavailableException("Change feed is not enabled");
+        }
+        return userService.streamChanges(lastEventId != null ? lastEventId : since);
+    }
+
+    @AdmissionPriority(Priority.LOOKUP)
     @GetMapping("/find/by/{id}")
     public ResponseEntity<?> getUserById(@PathVariable("id") long id) {
-        User user = userService.getUserById(id);
-        return ResponseEntity.ok(user);
+        return userService.findUserById(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> Problems.notFound("User with id: " + id + " is not exist"));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<?> getUsersByIds(@RequestBody @Valid BatchRequest batchRequest) {
+        UserBatch userBatch = userService.getUsersByIds(batchRequest.getIds());
+        return ResponseEntity.ok(userBatch);
     }
 
+    @AdmissionPriority(Priority.LOOKUP)
     @GetMapping("/find/by/login/{login}")
     public ResponseEntity<?> getUsersByLogin(@PathVariable("login") String login) {
-        User user = userService.getUserByLogin(login);
-        return ResponseEntity.ok(user);
+        return userService.findUserByLogin(login)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> Problems.notFound("User with login: " + login + " is not exist"));
     }
 
+    @AdmissionPriority(Priority.LOOKUP)
     @GetMapping("/find/by/email/{email}")
     public ResponseEntity<?> getUsersByEmail(@PathVariable("email") String email) {
-        User user = userService.getUserByEmail(email);
-        return ResponseEntity.ok(user);
+        return userService.findUserByEmail(email)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> Problems.notFound("User with email: " + email + " is not exist"));
+    }
+
+    @AdmissionPriority(Priority.LOOKUP)
+    @GetMapping("/check/login/{login}")
+    public ResponseEntity<?> checkLogin(@PathVariable("login") String login) {
+        ExistenceCheck check = ExistenceCheck.builder()
+                .value(login)
+                .exists(userService.isLoginTaken(login))
+                .build();
+        return ResponseEntity.ok(check);
+    }
+
+    @AdmissionPriority(Priority.LOOKUP)
+    @GetMapping("/check/email/{email}")
+    public ResponseEntity<?> checkEmail(@PathVariable("email") String email) {
+        ExistenceCheck check = ExistenceCheck.builder()
+                .value(email)
+                .exists(userService.isEmailTaken(email))
+                .build();
+        return ResponseEntity.ok(check);
     }
 
     @GetMapping("/filter/by/name/{name}")
@@ -64,6 +138,16 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchUser(@PathVariable("id") long id,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                       @RequestBody @Valid UserPatch userPatch) {
+        User user = userService.patchUser(id, userPatch, EntityTags.parseVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(user.getVersion()))
+                .body(user);
+    }
+
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable("id") long id) {
         userService.deleteUser(id);
@@ -0,0 +1,65 @@
+package the.husky.onlineshoprest.controller.reactive;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import the.husky.onlineshoprest.dto.Item;
+import the.husky.onlineshoprest.entity.ItemEntity;
+import the.husky.onlineshoprest.service.reactive.ReactiveItemService;
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/items")
+@RequiredArgsConstructor
+public class ReactiveItemController {
+    private final ReactiveItemService itemService;
+
+    @GetMapping(value = "/all", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Item> getAllItems() {
+        return itemService.getAllItems();
+    }
+
+    @PostMapping("/add")
+    public Mono<ResponseEntity<?>> addItem(@RequestBody @Valid ItemEntity itemEntity) {
+        return itemService.apendItem(itemEntity)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/find/by/{id}")
+    public Mono<ResponseEntity<?>> getItemById(@PathVariable("id") long id) {
+        return itemService.getItemById(id)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/filter/by/title/{title}")
+    public Flux<Item> getItemsByTitle(@PathVariable("title") String title) {
+        return itemService.getItemsByTitle(title);
+    }
+
+    @GetMapping("/filter/by/price/{price}")
+    public Flux<Item> getItemsByPrice(@PathVariable("price") double price) {
+        return itemService.getItemsByPrice(price);
+    }
+
+    @GetMapping("/filter/by/weight/{weight}")
+    public Flux<Item> getItemsByWeight(@PathVariable("weight") double weight) {
+        return itemService.getItemsByWeight(weight);
+    }
+
+    @PostMapping("/edit/{id}")
+    public Mono<ResponseEntity<?>> editItem(@PathVariable("id") long id, @RequestBody @Valid ItemEntity itemEntity) {
+        return itemService.editItem(id, itemEntity)
+                .map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/delete/{id}")
+    public Mono<ResponseEntity<?>> deleteItem(@PathVariable("id") long id) {
+        return itemService.deleteItem(id)
+                .thenReturn(ResponseEntity.ok("Item with id: " + id + " deleted."));
+    }
+}
@@ -0,0 +1,72 @@
+package the.husky.onlineshoprest.controller.reactive;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import the.husky.onlineshoprest.dto.User;
+import the.husky.onlineshoprest.entity.UserEntity;
+import the.husky.onlineshoprest.service.reactive.ReactiveUserService;
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/users")
+@RequiredArgsConstructor
+public class ReactiveUserController {
+    private final ReactiveUserService userService;
+
+    @GetMapping(value = "/all", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<User> getAllUsers() {
+        return userService.getAllUsers();
+    }
+
+    @PostMapping("/add")
+    public Mono<ResponseEntity<?>> addUser(@RequestBody @Valid UserEntity userEntity) {
+        return userService.appendUser(userEntity)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/find/by/{id}")
+    public Mono<ResponseEntity<?>> getUserById(@PathVariable("id") long id) {
+        return userService.getUserById(id)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/find/by/login/{login}")
+    public Mono<ResponseEntity<?>> getUsersByLogin(@PathVariable("login") String login) {
+        return userService.getUserByLogin(login)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/find/by/email/{email}")
+    public Mono<ResponseEntity<?>> getUsersByEmail(@PathVariable("email") String email) {
+        return userService.getUserByEmail(email)
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/filter/by/name/{name}")
+    public Flux<User> getUsersByName(@PathVariable("name") String name) {
+        return userService.getAllUsersByName(name);
+    }
+
+    @GetMapping("/filter/by/age/{age}")
+    public Flux<User> getUsersByAge(@PathVariable("age") int age) {
+        return userService.getAllUsersByAge(age);
+    }
+
+    @PostMapping("/edit/{id}")
+    public Mono<ResponseEntity<?>> editUser(@PathVariable("id") long id, @RequestBody @Valid UserEntity userEntity) {
+        return userService.editUser(id, userEntity)
+                .map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping("/delete/{id}")
+    public Mono<ResponseEntity<?>> deleteUser(@PathVariable("id") long id) {
+        return userService.deleteUser(id)
+                .thenReturn(ResponseEntity.ok("User with id: " + id + " was deleted."));
+    }
+}
@@ -0,0 +1,14 @@
+package the.husky.onlineshoprest.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchRequest {
+    @NotNull(message = "Ids should not be null")
+    @Size(min = 1, max = 500, message = "Ids should contain from 1 to 500 elements")
+    private List<@NotNull Long> ids;
+}
@@ -0,0 +1,14 @@
+package the.husky.onlineshoprest.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BulkIngestReport {
+    private int accepted;
+    private int rejected;
+    private List<BulkItemResult> rows;
+}
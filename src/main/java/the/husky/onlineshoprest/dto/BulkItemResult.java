@@ -0,0 +1,12 @@
+package the.husky.onlineshoprest.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BulkItemResult {
+    private int index;
+    private Long itemId;
+    private String error;
+}
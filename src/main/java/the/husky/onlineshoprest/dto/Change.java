@@ -0,0 +1,15 @@
+package the.husky.onlineshoprest.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+// The row as it is now rather than as this change left it, a consumer only ever needs the latest state.
+// A deleted row comes without data.
+@Data
+@Builder
+public class Change<T> {
+    private long seq;
+    private long id;
+    private boolean deleted;
+    private T data;
+}
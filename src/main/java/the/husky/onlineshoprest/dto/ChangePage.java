@@ -0,0 +1,14 @@
+package the.husky.onlineshoprest.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ChangePage<T> {
+    private List<Change<T>> changes;
+    private long nextSince;
+    private boolean hasMore;
+}
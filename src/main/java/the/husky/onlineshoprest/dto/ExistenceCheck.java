@@ -0,0 +1,11 @@
+package the.husky.onlineshoprest.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ExistenceCheck {
+    private String value;
+    private boolean exists;
+}
@@ -0,0 +1,13 @@
+package the.husky.onlineshoprest.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+// Holds values in [from, to), a null bound is open.
+@Data
+@Builder
+public class HistogramBucket {
+    private Double from;
+    private Double to;
+    private long count;
+}
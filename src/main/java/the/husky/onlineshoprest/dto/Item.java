@@ -12,6 +12,7 @@ public class Item {
     private String description;
     private double price;
     private double weight;
+    private long version;
 
     public static Item toDto(ItemEntity itemEntity) {
         long itemId = itemEntity.getItemId();
@@ -25,6 +26,7 @@ public class Item {
                 .description(description)
                 .price(price)
                 .weight(weight)
+                .version(itemEntity.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,19 @@
+package the.husky.onlineshoprest.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+@Data
+public class ItemPatch {
+    @Pattern(regexp = ".*\\S.*", message = "Title is mandatory")
+    private String title;
+
+    private String description;
+
+    @DecimalMin(value = "0.1", message = "Price should be greater than 0")
+    private Double price;
+
+    @DecimalMin(value = "0.1", message = "Weight should be greater than 0")
+    private Double weight;
+}
@@ -0,0 +1,12 @@
+package the.husky.onlineshoprest.dto;
+
+import lombok.Data;
+
+@Data
+public class ItemSearchCriteria {
+    private Double minPrice;
+    private Double maxPrice;
+    private Double minWeight;
+    private Double maxWeight;
+    private String title;
+}
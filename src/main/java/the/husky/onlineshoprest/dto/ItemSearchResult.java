@@ -0,0 +1,15 @@
+package the.husky.onlineshoprest.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ItemSearchResult {
+    private List<Item> items;
+    private int page;
+    private int size;
+    private boolean hasNext;
+}
@@ -0,0 +1,15 @@
+package the.husky.onlineshoprest.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@Builder
+public class ItemStatistics {
+    private long count;
+    private ValueStatistics price;
+    private ValueStatistics weight;
+    private Instant reconciledAt;
+}
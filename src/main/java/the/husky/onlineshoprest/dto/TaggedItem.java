@@ -0,0 +1,4 @@
+package the.husky.onlineshoprest.dto;
+
+public record TaggedItem(Item item, String revision) {
+}
@@ -14,6 +14,7 @@ public class User {
     private String email;
     private int age;
     private LocalDate registrationDate;
+    private long version;
 
     public static User toDto(UserEntity userEntity) {
         long id = userEntity.getUserId();
@@ -26,6 +27,7 @@ public class User {
                 .email(email)
                 .age(age)
                 .registrationDate(userEntity.getRegistrationDate())
+                .version(userEntity.getVersion())
                 .build();
     }
 }
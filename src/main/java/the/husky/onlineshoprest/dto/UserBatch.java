@@ -0,0 +1,13 @@
+package the.husky.onlineshoprest.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class UserBatch {
+    private List<User> users;
+    private List<Long> missingIds;
+}
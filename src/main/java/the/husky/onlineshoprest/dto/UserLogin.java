@@ -0,0 +1,4 @@
+package the.husky.onlineshoprest.dto;
+
+public record UserLogin(String login, String email) {
+}
@@ -0,0 +1,26 @@
+package the.husky.onlineshoprest.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+@Data
+public class UserPatch {
+    @Pattern(regexp = ".*\\S.*", message = "Name should not be blank")
+    private String name;
+
+    @Pattern(regexp = ".*\\S.*", message = "Login is mandatory")
+    private String login;
+
+    @Pattern(regexp = ".*\\S.*", message = "Password is mandatory")
+    private String password;
+
+    @Email(message = "Email should be valid")
+    private String email;
+
+    @Min(value = 1, message = "Age should be greater than 0")
+    @Max(value = 150, message = "Age should be less than 150")
+    private Integer age;
+}
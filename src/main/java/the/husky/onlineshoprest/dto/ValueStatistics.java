@@ -0,0 +1,16 @@
+package the.husky.onlineshoprest.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ValueStatistics {
+    private Double min;
+    private Double max;
+    private Double average;
+    private double sum;
+    private List<HistogramBucket> histogram;
+}
@@ -1,20 +1,36 @@
 package the.husky.onlineshoprest.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ItemEntity.CACHE_REGION)
 @Data
 @Builder
 @AllArgsConstructor(access = AccessLevel.PACKAGE)
 @NoArgsConstructor(access = AccessLevel.PACKAGE)
-@Table(name = "items")
+// The title index needs an operator class @Index can't express, ItemTitleIndexMigration creates it.
+@Table(name = "items", indexes = {
+        @Index(name = "idx_items_price_weight", columnList = "price, weight"),
+        @Index(name = "idx_items_weight_price", columnList = "weight, price")})
 public class ItemEntity {
+    // Sized in application.conf.
+    public static final String CACHE_REGION = "items";
+    public static final String ID_SEQUENCE = "items_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // A pooled sequence lets Hibernate assign ids up front and batch the inserts, which IDENTITY rules out.
     @Id
     @Column(name = "item_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private long itemId;
 
     @Column(name = "title")
@@ -31,4 +47,10 @@ public class ItemEntity {
     @Column(name = "weight")
     @DecimalMin(value = "0.1", message = "Weight should be greater than 0")
     private double weight;
+
+    @Version
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
 }
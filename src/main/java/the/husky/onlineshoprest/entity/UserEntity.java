@@ -1,31 +1,43 @@
 package the.husky.onlineshoprest.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
+import java.util.Set;
 
 @Data
 @Entity
 @Builder
 @AllArgsConstructor(access = AccessLevel.PACKAGE)
 @NoArgsConstructor(access = AccessLevel.PACKAGE)
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = UserEntity.LOGIN_CONSTRAINT, columnNames = "login"),
+        @UniqueConstraint(name = UserEntity.EMAIL_CONSTRAINT, columnNames = "email")})
 public class UserEntity {
+    public static final String LOGIN_CONSTRAINT = "uk_users_login";
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+    public static final Set<String> UNIQUE_CONSTRAINTS = Set.of(LOGIN_CONSTRAINT, EMAIL_CONSTRAINT);
+    public static final String ID_SEQUENCE = "users_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
     @Column(name = "user_id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private long userId;
 
     @Column(name = "name")
     @NotBlank
     private String name;
 
-    @Column(name = "login", unique = true)
+    @Column(name = "login")
     @NotBlank(message = "Login is mandatory")
     private String login;
 
@@ -33,7 +45,7 @@ public class UserEntity {
     @NotBlank(message = "Password is mandatory")
     private String password;
 
-    @Column(name = "email", unique = true)
+    @Column(name = "email")
     @Email(message = "Email should be valid")
     private String email;
 
@@ -45,6 +57,12 @@ public class UserEntity {
     @Column(name = "registration_date")
     private LocalDate registrationDate;
 
+    @Version
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @PrePersist
     private void setDefaultValues() {
         this.registrationDate = LocalDate.now();
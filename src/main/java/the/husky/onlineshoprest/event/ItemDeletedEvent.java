@@ -0,0 +1,4 @@
+package the.husky.onlineshoprest.event;
+
+public record ItemDeletedEvent(long itemId) {
+}
@@ -0,0 +1,6 @@
+package the.husky.onlineshoprest.event;
+
+import the.husky.onlineshoprest.dto.Item;
+
+public record ItemSavedEvent(Item item) {
+}
@@ -0,0 +1,7 @@
+package the.husky.onlineshoprest.exception;
+
+public class ChangeFeedUnavailableException extends RuntimeException {
+    public ChangeFeedUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,17 +1,34 @@
 package the.husky.onlineshoprest.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+import the.husky.onlineshoprest.entity.UserEntity;
+import the.husky.onlineshoprest.exception.item.CatalogReadOnlyException;
 import the.husky.onlineshoprest.exception.item.ItemException;
 import the.husky.onlineshoprest.exception.item.ItemNotFoundException;
+import the.husky.onlineshoprest.exception.item.ItemVersionConflictException;
+import the.husky.onlineshoprest.exception.user.InvalidCredentialsException;
 import the.husky.onlineshoprest.exception.user.UserAlreadyExistException;
 import the.husky.onlineshoprest.exception.user.UserException;
 import the.husky.onlineshoprest.exception.user.UserNotFoundException;
+import the.husky.onlineshoprest.exception.user.UserVersionConflictException;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class DefaultExceptionHandler {
+    private final MeterRegistry meterRegistry;
 
     @ExceptionHandler(UserAlreadyExistException.class)
     public ResponseEntity<?> handleUserAlreadyExistException(UserAlreadyExistException e) {
@@ -20,17 +37,76 @@ public class DefaultExceptionHandler {
                 message,
                 HttpStatus.CONFLICT,
                 HttpStatus.CONFLICT.value());
+        recordError(e, HttpStatus.CONFLICT);
         return new ResponseEntity<>(exception, HttpStatus.CONFLICT);
     }
 
-    @ExceptionHandler(UserNotFoundException.class)
-    public ResponseEntity<?> handleUserNotFoundException(UserNotFoundException e) {
+    // Only a unique violation conflicts with existing data. A missing value, a failed check or a reference to
+    // a row that isn't there is something wrong with the request itself.
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<?> handleDataIntegrityViolationException(DataIntegrityViolationException e) {
+        String constraintName = e.getCause() instanceof ConstraintViolationException violation
+                ? violation.getConstraintName()
+                : null;
+        boolean conflict = constraintName != null && UserEntity.UNIQUE_CONSTRAINTS.contains(constraintName);
+        HttpStatus httpStatus = conflict ? HttpStatus.CONFLICT : HttpStatus.BAD_REQUEST;
+        String message = conflict ? "Request conflicts with existing data" : "Request violates a data constraint";
+        ExceptionEntity exception = new ExceptionEntity(
+                message,
+                httpStatus,
+                httpStatus.value());
+        recordError(e, httpStatus);
+        return new ResponseEntity<>(exception, httpStatus);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        String message = "Resource was modified concurrently, reload it and retry";
+        ExceptionEntity exception = new ExceptionEntity(
+                message,
+                HttpStatus.CONFLICT,
+                HttpStatus.CONFLICT.value());
+        recordError(e, HttpStatus.CONFLICT);
+        return new ResponseEntity<>(exception, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(UserVersionConflictException.class)
+    public ResponseEntity<?> handleUserVersionConflictException(UserVersionConflictException e) {
         String message = e.getMessage();
         ExceptionEntity exception = new ExceptionEntity(
                 message,
-                HttpStatus.NOT_FOUND,
-                HttpStatus.NOT_FOUND.value());
-        return new ResponseEntity<>(exception, HttpStatus.NOT_FOUND);
+                HttpStatus.CONFLICT,
+                HttpStatus.CONFLICT.value());
+        recordError(e, HttpStatus.CONFLICT);
+        return new ResponseEntity<>(exception, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<?> handlePreconditionFailedException(PreconditionFailedException e) {
+        String message = e.getMessage();
+        ExceptionEntity exception = new ExceptionEntity(
+                message,
+                HttpStatus.PRECONDITION_FAILED,
+                HttpStatus.PRECONDITION_FAILED.value());
+        recordError(e, HttpStatus.PRECONDITION_FAILED);
+        return new ResponseEntity<>(exception, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(InvalidCredentialsException.class)
+    public ResponseEntity<?> handleInvalidCredentialsException(InvalidCredentialsException e) {
+        String message = e.getMessage();
+        ExceptionEntity exception = new ExceptionEntity(
+                message,
+                HttpStatus.UNAUTHORIZED,
+                HttpStatus.UNAUTHORIZED.value());
+        recordError(e, HttpStatus.UNAUTHORIZED);
+        return new ResponseEntity<>(exception, HttpStatus.UNAUTHORIZED);
+    }
+
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<?> handleUserNotFoundException(UserNotFoundException e) {
+        recordError(e, HttpStatus.NOT_FOUND);
+        return Problems.notFound(e.getMessage());
     }
 
     @ExceptionHandler(UserException.class)
@@ -40,17 +116,25 @@ public class DefaultExceptionHandler {
                 message,
                 HttpStatus.BAD_REQUEST,
                 HttpStatus.BAD_REQUEST.value());
+        recordError(e, HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(exception, HttpStatus.BAD_REQUEST);
     }
 
-    @ExceptionHandler(ItemNotFoundException.class)
-    public ResponseEntity<?> handleItemNotFoundException(ItemNotFoundException e) {
+    @ExceptionHandler(ItemVersionConflictException.class)
+    public ResponseEntity<?> handleItemVersionConflictException(ItemVersionConflictException e) {
         String message = e.getMessage();
         ExceptionEntity exception = new ExceptionEntity(
                 message,
-                HttpStatus.NOT_FOUND,
-                HttpStatus.NOT_FOUND.value());
-        return new ResponseEntity<>(exception, HttpStatus.NOT_FOUND);
+                HttpStatus.CONFLICT,
+                HttpStatus.CONFLICT.value());
+        recordError(e, HttpStatus.CONFLICT);
+        return new ResponseEntity<>(exception, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ItemNotFoundException.class)
+    public ResponseEntity<?> handleItemNotFoundException(ItemNotFoundException e) {
+        recordError(e, HttpStatus.NOT_FOUND);
+        return Problems.notFound(e.getMessage());
     }
 
     @ExceptionHandler(ItemException.class)
@@ -60,6 +144,43 @@ public class DefaultExceptionHandler {
                 message,
                 HttpStatus.BAD_REQUEST,
                 HttpStatus.BAD_REQUEST.value());
+        recordError(e, HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(exception, HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(CatalogReadOnlyException.class)
+    public ResponseEntity<?> handleCatalogReadOnlyException(CatalogReadOnlyException e) {
+        recordError(e, HttpStatus.SERVICE_UNAVAILABLE);
+        return Problems.serviceUnavailable(e.getMessage(), e.getRetryAfter());
+    }
+
+    @ExceptionHandler(ChangeFeedUnavailableException.class)
+    public ResponseEntity<?> handleChangeFeedUnavailableException(ChangeFeedUnavailableException e) {
+        recordError(e, HttpStatus.NOT_FOUND);
+        return Problems.notFound(e.getMessage());
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<?> handleServiceOverloadedException(ServiceOverloadedException e) {
+        recordError(e, HttpStatus.TOO_MANY_REQUESTS);
+        return Problems.tooManyRequests(e.getMessage(), e.getRetryAfter());
+    }
+
+    @ExceptionHandler(LoadSheddingException.class)
+    public ResponseEntity<?> handleLoadSheddingException(LoadSheddingException e) {
+        recordError(e, HttpStatus.SERVICE_UNAVAILABLE);
+        return Problems.serviceUnavailable(e.getMessage(), e.getRetryAfter());
+    }
+
+    private void recordError(Exception e, HttpStatus httpStatus) {
+        meterRegistry.counter("shop.http.errors",
+                "exception", e.getClass().getSimpleName(),
+                "status", String.valueOf(httpStatus.value())).increment();
+        // Handled exceptions don't reach the observation filter, so tag http.server.requests explicitly.
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            ServerHttpObservationFilter.findObservationContext(request).ifPresent(context -> context.setError(e));
+        }
+    }
 }
@@ -0,0 +1,16 @@
+package the.husky.onlineshoprest.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class LoadSheddingException extends RuntimeException {
+    private final Duration retryAfter;
+
+    // Thrown for every request shed under load, a stack trace would only add to it.
+    public LoadSheddingException(String message, Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+}
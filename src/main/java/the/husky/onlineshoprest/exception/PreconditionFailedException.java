@@ -0,0 +1,7 @@
+package the.husky.onlineshoprest.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,44 @@
+package the.husky.onlineshoprest.exception;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+@Slf4j
+public final class Problems {
+    private static final RateLimitedLogger NOT_FOUND_LOG = new RateLimitedLogger(log, Duration.ofSeconds(1));
+    private static final RateLimitedLogger OVERLOADED_LOG = new RateLimitedLogger(log, Duration.ofSeconds(1));
+
+    private Problems() {
+    }
+
+    public static ResponseEntity<ProblemDetail> notFound(String detail) {
+        NOT_FOUND_LOG.warn(detail);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, detail));
+    }
+
+    public static ResponseEntity<ProblemDetail> tooManyRequests(String detail, Duration retryAfter) {
+        return retryLater(HttpStatus.TOO_MANY_REQUESTS, detail, retryAfter);
+    }
+
+    public static ResponseEntity<ProblemDetail> serviceUnavailable(String detail, Duration retryAfter) {
+        return retryLater(HttpStatus.SERVICE_UNAVAILABLE, detail, retryAfter);
+    }
+
+    private static ResponseEntity<ProblemDetail> retryLater(HttpStatus status, String detail, Duration retryAfter) {
+        OVERLOADED_LOG.warn(detail);
+        // Retry-After takes whole seconds, rounding down could tell clients to come straight back.
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(ProblemDetail.forStatusAndDetail(status, detail));
+    }
+}
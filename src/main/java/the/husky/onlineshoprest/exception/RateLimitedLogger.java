@@ -0,0 +1,33 @@
+package the.husky.onlineshoprest.exception;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class RateLimitedLogger {
+    private final Logger logger;
+    private final long intervalNanos;
+    private final AtomicLong nextLogAt = new AtomicLong(System.nanoTime());
+    private final LongAdder suppressed = new LongAdder();
+
+    public RateLimitedLogger(Logger logger, Duration interval) {
+        this.logger = logger;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    public void warn(String message) {
+        if (!logger.isWarnEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long next = nextLogAt.get();
+        // One thread wins the slot for this interval, everybody else only bumps a counter.
+        if (now - next < 0 || !nextLogAt.compareAndSet(next, now + intervalNanos)) {
+            suppressed.increment();
+            return;
+        }
+        logger.warn("{} ({} similar messages suppressed)", message, suppressed.sumThenReset());
+    }
+}
@@ -0,0 +1,16 @@
+package the.husky.onlineshoprest.exception.item;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class CatalogReadOnlyException extends RuntimeException {
+    private final Duration retryAfter;
+
+    // Every write is turned away while the database is down, a stack trace apiece would add nothing.
+    public CatalogReadOnlyException(String message, Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+}
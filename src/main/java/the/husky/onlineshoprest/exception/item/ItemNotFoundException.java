@@ -1,11 +1,12 @@
 package the.husky.onlineshoprest.exception.item;
 
 public class ItemNotFoundException extends RuntimeException {
+    // Misses are routine traffic and nobody reads their stack trace, so skip the stack walk.
     public ItemNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public ItemNotFoundException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 }
@@ -0,0 +1,7 @@
+package the.husky.onlineshoprest.exception.item;
+
+public class ItemVersionConflictException extends RuntimeException {
+    public ItemVersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package the.husky.onlineshoprest.exception.user;
+
+public class InvalidCredentialsException extends RuntimeException {
+    public InvalidCredentialsException(String message) {
+        super(message, null, false, false);
+    }
+}
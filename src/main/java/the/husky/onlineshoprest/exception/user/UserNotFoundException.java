@@ -1,11 +1,12 @@
 package the.husky.onlineshoprest.exception.user;
 
 public class UserNotFoundException extends RuntimeException {
+    // Misses are routine traffic and nobody reads their stack trace, so skip the stack walk.
     public UserNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public UserNotFoundException(String message, Throwable cause) {
-        super(message);
+        super(message, cause, false, false);
     }
 }
@@ -0,0 +1,7 @@
+package the.husky.onlineshoprest.exception.user;
+
+public class UserVersionConflictException extends RuntimeException {
+    public UserVersionConflictException(String message) {
+        super(message);
+    }
+}
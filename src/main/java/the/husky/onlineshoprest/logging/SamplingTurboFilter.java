@@ -0,0 +1,42 @@
+package the.husky.onlineshoprest.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import lombok.Setter;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lets one in every `oneIn` debug events of a logger through. It runs before logback builds an event,
+// so the events that are dropped cost neither a LoggingEvent nor a trip through the appenders.
+@Setter
+public class SamplingTurboFilter extends TurboFilter {
+    private final AtomicLong counter = new AtomicLong();
+    private String loggerName;
+    private int oneIn = 100;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable t) {
+        if (!isStarted() || level != Level.DEBUG || !logger.getName().equals(loggerName)) {
+            return FilterReply.NEUTRAL;
+        }
+        // isDebugEnabled() checks come without a message and have to pass, callers such as
+        // Hibernate's logging bridge ask more than once for a single statement.
+        if (format == null) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % oneIn == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    @Override
+    public void start() {
+        if (loggerName == null || oneIn < 1) {
+            addError("SamplingTurboFilter needs a loggerName and a positive oneIn");
+            return;
+        }
+        super.start();
+    }
+}
@@ -0,0 +1,161 @@
+package the.husky.onlineshoprest.password;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import the.husky.onlineshoprest.exception.ServiceOverloadedException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// BCrypt is CPU-bound by design, so it runs on a small pool of its own instead of request threads: a
+// sign-up spike can take `threads` cores at most and the catalog keeps the rest. Once the queue is
+// full further requests are turned away with 429 instead of queueing up behind each other.
+@Slf4j
+@Component
+public class PasswordHasher {
+    private static final String METRIC_PREFIX = "shop.users.password.hashing";
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+    // The first rounds run before the JIT has compiled BCrypt and take two to three times as long.
+    private static final int CALIBRATION_ROUNDS = 8;
+
+    private final PasswordHashingProperties properties;
+    private final ThreadPoolExecutor executor;
+    private final int cost;
+    private final BCryptPasswordEncoder encoder;
+    private final String unknownUserHash;
+    private final Timer hashTimer;
+    private final Timer verifyTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordHashingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.executor = new ThreadPoolExecutor(properties.threads(), properties.threads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()), new CustomizableThreadFactory("password-hashing-"));
+        this.cost = properties.cost() != null ? properties.cost() : calibrate();
+        this.encoder = new BCryptPasswordEncoder(cost);
+        this.unknownUserHash = encoder.encode(UUID.randomUUID().toString());
+        this.hashTimer = Timer.builder(METRIC_PREFIX)
+                .description("Time spent hashing or verifying one password, queueing excluded")
+                .tag("operation", "hash")
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder(METRIC_PREFIX)
+                .description("Time spent hashing or verifying one password, queueing excluded")
+                .tag("operation", "verify")
+                .register(meterRegistry);
+        this.rejected = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("Requests turned away because the hashing queue was full")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".queue", executor, pool -> pool.getQueue().size())
+                .description("Passwords waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing threads currently busy")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".cost", this, hasher -> hasher.cost)
+                .description("BCrypt cost new hashes are made with")
+                .register(meterRegistry);
+    }
+
+    public String hash(String rawPassword) {
+        return await(hashAsync(rawPassword));
+    }
+
+    // Never throws, a full queue fails the future, so reactive callers see it as an error signal.
+    public CompletableFuture<String> hashAsync(String rawPassword) {
+        return submit(hashTimer, () -> encoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (!isHash(storedPassword)) {
+            // Written before passwords were hashed; the login that gets here rehashes it.
+            return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        return await(submit(verifyTimer, () -> encoder.matches(rawPassword, storedPassword)));
+    }
+
+    // For a login that doesn't exist: checks the password against a hash of the current cost that no
+    // password matches, on the same pool, so the answer takes as long as a wrong password for a real login.
+    public void verifyUnknownUser(String rawPassword) {
+        await(submit(verifyTimer, () -> encoder.matches(rawPassword, unknownUserHash)));
+    }
+
+    // True for plain text and for hashes made with another cost, in either direction, so lowering the
+    // cost to take load off works the same way as raising it.
+    public boolean needsRehash(String storedPassword) {
+        Matcher matcher = BCRYPT_HASH.matcher(storedPassword);
+        return !matcher.matches() || Integer.parseInt(matcher.group(1)) != cost;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> timer.record(task), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new ServiceOverloadedException(
+                    "Too many password operations in progress, retry later", properties.retryAfter()));
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isHash(String storedPassword) {
+        return BCRYPT_HASH.matcher(storedPassword).matches();
+    }
+
+    // Every step up doubles the work, so one measurement at the lowest cost predicts the others.
+    private int calibrate() {
+        int calibrated = properties.minCost();
+        long nanos = measure(calibrated);
+        while (calibrated < properties.maxCost() && nanos * 2 <= properties.targetLatency().toNanos()) {
+            calibrated++;
+            nanos *= 2;
+        }
+        log.info("Password hashing calibrated to BCrypt cost {}, about {} ms per hash",
+                calibrated, TimeUnit.NANOSECONDS.toMillis(nanos));
+        return calibrated;
+    }
+
+    private static long measure(int cost) {
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long started = System.nanoTime();
+            BCrypt.hashpw(CALIBRATION_PASSWORD, BCrypt.gensalt(cost));
+            fastest = Math.min(fastest, System.nanoTime() - started);
+        }
+        return fastest;
+    }
+}
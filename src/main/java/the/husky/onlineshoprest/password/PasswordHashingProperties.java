@@ -0,0 +1,18 @@
+package the.husky.onlineshoprest.password;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+// Without a fixed cost the BCrypt cost is calibrated at startup: the highest one within [minCost, maxCost]
+// whose hash still fits targetLatency on this machine.
+@ConfigurationProperties(prefix = "shop.users.password-hashing")
+public record PasswordHashingProperties(@DefaultValue("2") int threads,
+                                        @DefaultValue("32") int queueCapacity,
+                                        @DefaultValue("1s") Duration retryAfter,
+                                        Integer cost,
+                                        @DefaultValue("100ms") Duration targetLatency,
+                                        @DefaultValue("10") int minCost,
+                                        @DefaultValue("14") int maxCost) {
+}
@@ -0,0 +1,145 @@
+package the.husky.onlineshoprest.repository;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import the.husky.onlineshoprest.dto.Change;
+import the.husky.onlineshoprest.dto.Item;
+import the.husky.onlineshoprest.dto.User;
+import the.husky.onlineshoprest.dto.UserLogin;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+@Repository
+@Timed("shop.repository")
+@RequiredArgsConstructor
+public class ChangeLogRepository {
+    // Only one node hands out sequence numbers at a time, the others skip the round.
+    private static final long SEQUENCER_LOCK = 0x5348_4f50_4348_474cL;
+    // Sequence numbers are taken at commit rather than at write time, in transaction order, and only for
+    // transactions older than every one still running. A later one can't commit into the range already
+    // handed out, so a consumer that has read up to some seq never has anything appear below it. The lock
+    // is a transaction one and the statement its own transaction, it is gone as soon as the update is.
+    private static final String SEQUENCE = """
+            WITH sequencer AS (
+                SELECT pg_try_advisory_xact_lock(?) AS held
+            ), pending AS (
+                SELECT id, row_number() OVER (ORDER BY xid, id) AS position
+                FROM change_log
+                WHERE (SELECT held FROM sequencer)
+                  AND seq IS NULL AND xid < pg_snapshot_xmin(pg_current_snapshot())
+            ), last AS (
+                SELECT COALESCE(MAX(seq), 0) AS seq FROM change_log
+            )
+            UPDATE change_log SET seq = last.seq + pending.position
+            FROM pending, last
+            WHERE change_log.id = pending.id""";
+    // Only the newest entry of a row is worth reading, whatever it changed the row is read as it is now.
+    private static final String COMPACT = """
+            DELETE FROM change_log
+            WHERE seq IS NOT NULL AND EXISTS (
+                SELECT 1 FROM change_log newer
+                WHERE newer.entity = change_log.entity AND newer.entity_id = change_log.entity_id
+                  AND newer.seq > change_log.seq)""";
+    private static final String SELECT_ITEM_CHANGES = """
+            SELECT c.seq, c.entity_id, i.item_id, i.title, i.description, i.price, i.weight, i.version
+            FROM change_log c LEFT JOIN items i ON i.item_id = c.entity_id
+            WHERE c.entity = 'items' AND c.seq > ?
+            ORDER BY c.seq
+            LIMIT ?""";
+    private static final String SELECT_USER_CHANGES = """
+            SELECT c.seq, c.entity_id, u.user_id, u.name, u.email, u.age, u.registration_date, u.version
+            FROM change_log c LEFT JOIN users u ON u.user_id = c.entity_id
+            WHERE c.entity = 'users' AND c.seq > ?
+            ORDER BY c.seq
+            LIMIT ?""";
+    // Logins stay out of the users the feed hands out, only the lookup filter reads them.
+    private static final String SELECT_USER_LOGIN_CHANGES = """
+            SELECT c.seq, c.entity_id, u.user_id, u.login, u.email
+            FROM change_log c LEFT JOIN users u ON u.user_id = c.entity_id
+            WHERE c.entity = 'users' AND c.seq > ?
+            ORDER BY c.seq
+            LIMIT ?""";
+
+    // Entries waiting for a sequence number count too, their rows are committed already.
+    private static final String HAS_USER_CHANGES_AFTER = """
+            SELECT EXISTS (SELECT 1 FROM change_log WHERE entity = 'users' AND seq > ?)
+                OR EXISTS (SELECT 1 FROM change_log WHERE entity = 'users' AND seq IS NULL)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Every call below is a single statement and runs in a transaction of its own, the poll comes round
+    // twice a second and has no use for a persistence context.
+
+    // Returns how many entries got a sequence number, none when another node holds the sequencer.
+    public int sequence() {
+        return jdbcTemplate.update(SEQUENCE, SEQUENCER_LOCK);
+    }
+
+    public int compact() {
+        return jdbcTemplate.update(COMPACT);
+    }
+
+    public long lastSeq() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(seq), 0) FROM change_log", Long.class);
+    }
+
+    public boolean hasUserChangesAfter(long seq) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(HAS_USER_CHANGES_AFTER, Boolean.class, seq));
+    }
+
+    public List<Change<Item>> findItemChanges(long since, int limit) {
+        return jdbcTemplate.query(SELECT_ITEM_CHANGES, this::mapItemChange, since, limit);
+    }
+
+    public List<Change<User>> findUserChanges(long since, int limit) {
+        return jdbcTemplate.query(SELECT_USER_CHANGES, this::mapUserChange, since, limit);
+    }
+
+    public List<Change<UserLogin>> findUserLoginChanges(long since, int limit) {
+        return jdbcTemplate.query(SELECT_USER_LOGIN_CHANGES, this::mapUserLoginChange, since, limit);
+    }
+
+    private Change<Item> mapItemChange(ResultSet resultSet, int rowNumber) throws SQLException {
+        return change(resultSet, resultSet.getObject("item_id") == null ? null : Item.builder()
+                .itemId(resultSet.getLong("item_id"))
+                .title(resultSet.getString("title"))
+                .description(resultSet.getString("description"))
+                .price(resultSet.getDouble("price"))
+                .weight(resultSet.getDouble("weight"))
+                .version(resultSet.getLong("version"))
+                .build());
+    }
+
+    private Change<User> mapUserChange(ResultSet resultSet, int rowNumber) throws SQLException {
+        Date registrationDate = resultSet.getDate("registration_date");
+        return change(resultSet, resultSet.getObject("user_id") == null ? null : User.builder()
+                .id(resultSet.getLong("user_id"))
+                .name(resultSet.getString("name"))
+                .email(resultSet.getString("email"))
+                .age(resultSet.getInt("age"))
+                .registrationDate(registrationDate == null ? null : registrationDate.toLocalDate())
+                .version(resultSet.getLong("version"))
+                .build());
+    }
+
+    private Change<UserLogin> mapUserLoginChange(ResultSet resultSet, int rowNumber) throws SQLException {
+        return change(resultSet, resultSet.getObject("user_id") == null
+                ? null
+                : new UserLogin(resultSet.getString("login"), resultSet.getString("email")));
+    }
+
+    // A row that is gone by now reads as deleted, its tombstone is further along in the log.
+    private static <T> Change<T> change(ResultSet resultSet, T data) throws SQLException {
+        return Change.<T>builder()
+                .seq(resultSet.getLong("seq"))
+                .id(resultSet.getLong("entity_id"))
+                .deleted(data == null)
+                .data(data)
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package the.husky.onlineshoprest.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import the.husky.onlineshoprest.entity.ItemEntity;
+import the.husky.onlineshoprest.entity.UserEntity;
+
+// Ids used to come from identity or serial columns. Hibernate now draws them from pooled sequences,
+// and this moves existing tables over: the column default becomes the sequence, for the inserts that
+// bypass Hibernate, and the sequence is moved past every id the old default handed out.
+@Slf4j
+@Component
+public class IdSequenceMigration {
+    private static final String PENDING = """
+            SELECT is_identity = 'YES' OR column_default IS DISTINCT FROM ?
+            FROM information_schema.columns
+            WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Depending on the EntityManagerFactory makes this run after Hibernate has updated the schema.
+    public IdSequenceMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        migrate("items", "item_id", ItemEntity.ID_SEQUENCE, ItemEntity.ID_ALLOCATION_SIZE);
+        migrate("users", "user_id", UserEntity.ID_SEQUENCE, UserEntity.ID_ALLOCATION_SIZE);
+    }
+
+    private void migrate(String table, String column, String sequence, int allocationSize) {
+        String sequenceDefault = "nextval('" + sequence + "'::regclass)";
+        Boolean pending = jdbcTemplate.query(PENDING, resultSet -> resultSet.next() ? resultSet.getBoolean(1) : null,
+                sequenceDefault, table, column);
+        if (!Boolean.TRUE.equals(pending)) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " INCREMENT BY " + allocationSize);
+            // The ALTER keeps the table locked until commit, the old default can't hand out an id in between.
+            jdbcTemplate.execute("ALTER TABLE " + table
+                    + " ALTER COLUMN " + column + " DROP IDENTITY IF EXISTS,"
+                    + " ALTER COLUMN " + column + " SET DEFAULT nextval('" + sequence + "')");
+            jdbcTemplate.queryForList("SELECT setval('" + sequence + "', max_id)"
+                    + " FROM (SELECT MAX(" + column + ") AS max_id FROM " + table + ") AS ids"
+                    + " WHERE max_id > (SELECT last_value FROM " + sequence + ")");
+        });
+        log.info("Ids of {} now come from sequence {}", table, sequence);
+    }
+}
@@ -0,0 +1,89 @@
+package the.husky.onlineshoprest.repository;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import the.husky.onlineshoprest.entity.ItemEntity;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+@Timed("shop.repository")
+@RequiredArgsConstructor
+public class ItemBatchRepository {
+    private static final String ALLOCATE_ID_BLOCKS =
+            "SELECT nextval('" + ItemEntity.ID_SEQUENCE + "') FROM generate_series(1, ?)";
+    private static final String INSERT_ITEM =
+            "INSERT INTO items (item_id, title, description, price, weight) VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_ITEM = """
+            UPDATE items SET title = ?, description = ?, price = ?, weight = ?, version = version + 1
+            WHERE item_id = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Ids are drawn from the item sequence up front so the inserts can go out as one JDBC batch.
+    @Transactional
+    public List<Long> insertAll(List<ItemEntity> itemEntities) {
+        List<Long> ids = allocateIds(itemEntities.size());
+        jdbcTemplate.batchUpdate(INSERT_ITEM, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int index) throws SQLException {
+                ItemEntity itemEntity = itemEntities.get(index);
+                statement.setLong(1, ids.get(index));
+                statement.setString(2, itemEntity.getTitle());
+                statement.setString(3, itemEntity.getDescription());
+                statement.setDouble(4, itemEntity.getPrice());
+                statement.setDouble(5, itemEntity.getWeight());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return itemEntities.size();
+            }
+        });
+        return ids;
+    }
+
+    @Transactional
+    public int[] updateAll(List<ItemEntity> itemEntities) {
+        return jdbcTemplate.batchUpdate(UPDATE_ITEM, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int index) throws SQLException {
+                ItemEntity itemEntity = itemEntities.get(index);
+                statement.setString(1, itemEntity.getTitle());
+                statement.setString(2, itemEntity.getDescription());
+                statement.setDouble(3, itemEntity.getPrice());
+                statement.setDouble(4, itemEntity.getWeight());
+                statement.setLong(5, itemEntity.getItemId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return itemEntities.size();
+            }
+        });
+    }
+
+    // Reads the sequence the way Hibernate's pooled optimizer does: every value is the top of a block
+    // of ID_ALLOCATION_SIZE ids that nobody else hands out, so one nextval covers many rows.
+    private List<Long> allocateIds(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            int blocks = (count - ids.size() + ItemEntity.ID_ALLOCATION_SIZE - 1) / ItemEntity.ID_ALLOCATION_SIZE;
+            for (long high : jdbcTemplate.queryForList(ALLOCATE_ID_BLOCKS, Long.class, blocks)) {
+                // A fresh sequence starts at 1, the block below it would hold ids of zero and less.
+                long low = Math.max(high - ItemEntity.ID_ALLOCATION_SIZE + 1, 1);
+                for (long id = low; id <= high && ids.size() < count; id++) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+}
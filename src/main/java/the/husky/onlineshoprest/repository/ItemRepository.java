@@ -1,17 +1,54 @@
 package the.husky.onlineshoprest.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import the.husky.onlineshoprest.entity.ItemEntity;
 
 import java.util.List;
 import java.util.Optional;
 
+// Declared queries are read-only so they can be served by a replica, writes opt back out.
 @Repository
+@Transactional(readOnly = true)
 public interface ItemRepository extends JpaRepository<ItemEntity, Long> {
+    List<ItemEntity> findAllByItemIdGreaterThan(long itemId, Pageable pageable);
+
+    // Served from Hibernate's query cache when the prod profile turns it on, a no-op otherwise.
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<List<ItemEntity>> findAllByTitle(String title);
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<List<ItemEntity>> findAllByPrice(double price);
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<List<ItemEntity>> findAllByWeight(double weight);
+
+    // A single array parameter keeps one prepared statement for every batch size, unlike IN (...).
+    @Query(nativeQuery = true, value = "SELECT * FROM items WHERE item_id = ANY(:itemIds)")
+    List<ItemEntity> findAllByItemIds(@Param("itemIds") Long[] itemIds);
+
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            UPDATE items
+            SET title = COALESCE(CAST(:title AS VARCHAR), title),
+                description = COALESCE(CAST(:description AS VARCHAR), description),
+                price = COALESCE(CAST(:price AS FLOAT8), price),
+                weight = COALESCE(CAST(:weight AS FLOAT8), weight),
+                version = version + 1
+            WHERE item_id = :itemId
+              AND (CAST(:version AS BIGINT) IS NULL OR version = CAST(:version AS BIGINT))
+            RETURNING *""")
+    Optional<ItemEntity> patch(@Param("itemId") long itemId,
+                               @Param("title") String title,
+                               @Param("description") String description,
+                               @Param("price") Double price,
+                               @Param("weight") Double weight,
+                               @Param("version") Long version);
 }
@@ -0,0 +1,87 @@
+package the.husky.onlineshoprest.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import the.husky.onlineshoprest.dto.ItemSearchCriteria;
+import the.husky.onlineshoprest.entity.ItemEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+@Timed("shop.repository")
+@RequiredArgsConstructor
+public class ItemSearchRepository {
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final EntityManager entityManager;
+
+    // Fetches one row past the page instead of issuing a separate count query.
+    @Transactional(readOnly = true)
+    public Slice<ItemEntity> search(ItemSearchCriteria criteria, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ItemEntity> query = builder.createQuery(ItemEntity.class);
+        Root<ItemEntity> root = query.from(ItemEntity.class);
+        query.where(toPredicates(criteria, builder, root).toArray(Predicate[]::new));
+        query.orderBy(toOrders(pageable.getSort(), builder, root));
+
+        List<ItemEntity> itemEntities = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = itemEntities.size() > pageable.getPageSize();
+        List<ItemEntity> content = hasNext ? itemEntities.subList(0, pageable.getPageSize()) : itemEntities;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    private List<Predicate> toPredicates(ItemSearchCriteria criteria, CriteriaBuilder builder, Root<ItemEntity> root) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.getMinPrice() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(root.get("price"), criteria.getMinPrice()));
+        }
+        if (criteria.getMaxPrice() != null) {
+            predicates.add(builder.lessThanOrEqualTo(root.get("price"), criteria.getMaxPrice()));
+        }
+        if (criteria.getMinWeight() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(root.get("weight"), criteria.getMinWeight()));
+        }
+        if (criteria.getMaxWeight() != null) {
+            predicates.add(builder.lessThanOrEqualTo(root.get("weight"), criteria.getMaxWeight()));
+        }
+        if (criteria.getTitle() != null && !criteria.getTitle().isEmpty()) {
+            predicates.add(builder.like(root.get("title"), escapeLike(criteria.getTitle()) + "%", LIKE_ESCAPE));
+        }
+        return predicates;
+    }
+
+    private List<Order> toOrders(Sort sort, CriteriaBuilder builder, Root<ItemEntity> root) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            orders.add(order.isAscending()
+                    ? builder.asc(root.get(order.getProperty()))
+                    : builder.desc(root.get(order.getProperty())));
+        }
+        if (sort.getOrderFor("itemId") == null) {
+            orders.add(builder.asc(root.get("itemId")));
+        }
+        return orders;
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
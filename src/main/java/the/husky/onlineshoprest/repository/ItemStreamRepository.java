@@ -0,0 +1,48 @@
+package the.husky.onlineshoprest.repository;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import the.husky.onlineshoprest.entity.ItemEntity;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+@Repository
+@Timed("shop.repository")
+@RequiredArgsConstructor
+public class ItemStreamRepository {
+    private static final String SELECT_ALL_ITEMS =
+            "SELECT item_id, title, description, price, weight, version FROM items ORDER BY item_id";
+    private static final int FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // PostgreSQL only uses a server-side cursor for the fetch size inside a transaction.
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<ItemEntity> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_ALL_ITEMS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, resultSet -> {
+            consumer.accept(mapRow(resultSet));
+        });
+    }
+
+    private ItemEntity mapRow(ResultSet resultSet) throws SQLException {
+        return ItemEntity.builder()
+                .itemId(resultSet.getLong("item_id"))
+                .title(resultSet.getString("title"))
+                .description(resultSet.getString("description"))
+                .price(resultSet.getDouble("price"))
+                .weight(resultSet.getDouble("weight"))
+                .version(resultSet.getLong("version"))
+                .build();
+    }
+}
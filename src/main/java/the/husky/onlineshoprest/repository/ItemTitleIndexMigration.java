@@ -0,0 +1,73 @@
+package the.husky.onlineshoprest.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// A plain btree on title only serves LIKE 'prefix%' under the C collation, any other one compares
+// strings in an order the prefix can't be mapped onto. The pattern operator class compares them byte
+// by byte whatever the collation, and still serves the equality the title filter asks for.
+// A prefix search is paged in id order, so the planner weighs the index against walking the primary key
+// until a page is full. With the default 100 histogram buckets, one bucket bound inside the prefix makes
+// it estimate a hundredth of the table and walk the key, a finer histogram keeps that estimate honest.
+@Slf4j
+@Component
+public class ItemTitleIndexMigration {
+    public static final String INDEX = "idx_items_title";
+    private static final String BUILDING = INDEX + "_building";
+    private static final int STATISTICS_TARGET = 1000;
+    private static final String PENDING = """
+            SELECT NOT EXISTS (
+                SELECT 1 FROM pg_indexes
+                WHERE schemaname = current_schema() AND tablename = 'items' AND indexname = ?
+                  AND indexdef LIKE '%text_pattern_ops%')""";
+    private static final String STATISTICS_PENDING = """
+            SELECT attstattarget IS DISTINCT FROM ?
+            FROM pg_attribute
+            WHERE attrelid = 'items'::regclass AND attname = 'title'""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Depending on the EntityManagerFactory makes this run after Hibernate has created the table.
+    public ItemTitleIndexMigration(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+        migrateIndex();
+        migrateStatistics();
+    }
+
+    private void migrateIndex() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(PENDING, Boolean.class, INDEX))) {
+            return;
+        }
+        // Built concurrently, outside a transaction, so writes to items go on while it is. A build
+        // that failed half way leaves an invalid index behind, which goes first.
+        jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + BUILDING);
+        jdbcTemplate.execute("CREATE INDEX CONCURRENTLY " + BUILDING + " ON items (title text_pattern_ops)");
+        jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + INDEX);
+        jdbcTemplate.execute("ALTER INDEX " + BUILDING + " RENAME TO " + INDEX);
+        log.info("Index {} now serves title prefix searches under any collation", INDEX);
+    }
+
+    private void migrateStatistics() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(STATISTICS_PENDING, Boolean.class,
+                STATISTICS_TARGET))) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE items ALTER COLUMN title SET STATISTICS " + STATISTICS_TARGET);
+        // Only the next analyze builds the finer histogram, this one doesn't wait for autovacuum.
+        jdbcTemplate.execute("ANALYZE items (title)");
+        log.info("Title statistics of items now kept with a target of {}", STATISTICS_TARGET);
+    }
+}
@@ -1,13 +1,18 @@
 package the.husky.onlineshoprest.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import the.husky.onlineshoprest.entity.UserEntity;
 
 import java.util.List;
 import java.util.Optional;
 
+// Declared queries are read-only so they can be served by a replica, writes opt back out.
 @Repository
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
     Optional<UserEntity> findByLogin(String login);
 
@@ -16,5 +21,31 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
     Optional<List<UserEntity>> findAllByName(String name);
 
     Optional<List<UserEntity>> findAllByAge(int age);
-}
 
+    @Query(nativeQuery = true, value = "SELECT * FROM users WHERE user_id = ANY(:userIds)")
+    List<UserEntity> findAllByUserIds(@Param("userIds") Long[] userIds);
+
+    boolean existsByLogin(String login);
+
+    boolean existsByEmail(String email);
+
+    @Transactional
+    @Query(nativeQuery = true, value = """
+            UPDATE users
+            SET name = COALESCE(CAST(:name AS VARCHAR), name),
+                login = COALESCE(CAST(:login AS VARCHAR), login),
+                password = COALESCE(CAST(:password AS VARCHAR), password),
+                email = COALESCE(CAST(:email AS VARCHAR), email),
+                age = COALESCE(CAST(:age AS INTEGER), age),
+                version = version + 1
+            WHERE user_id = :userId
+              AND (CAST(:version AS BIGINT) IS NULL OR version = CAST(:version AS BIGINT))
+            RETURNING *""")
+    Optional<UserEntity> patch(@Param("userId") long userId,
+                               @Param("name") String name,
+                               @Param("login") String login,
+                               @Param("password") String password,
+                               @Param("email") String email,
+                               @Param("age") Integer age,
+                               @Param("version") Long version);
+}
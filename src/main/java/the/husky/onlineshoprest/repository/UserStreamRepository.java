@@ -0,0 +1,34 @@
+package the.husky.onlineshoprest.repository;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.function.BiConsumer;
+
+@Repository
+@Timed("shop.repository")
+@RequiredArgsConstructor
+public class UserStreamRepository {
+    private static final String SELECT_ALL_LOGINS_AND_EMAILS = "SELECT login, email FROM users";
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // PostgreSQL only uses a server-side cursor for the fetch size inside a transaction.
+    @Transactional(readOnly = true)
+    public void streamLoginsAndEmails(BiConsumer<String, String> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_ALL_LOGINS_AND_EMAILS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, resultSet -> {
+            consumer.accept(resultSet.getString("login"), resultSet.getString("email"));
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package the.husky.onlineshoprest.repository.reactive;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import the.husky.onlineshoprest.entity.ItemEntity;
+
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveItemRepository {
+    private static final String COLUMNS = "item_id, title, description, price, weight, version";
+    private static final int FETCH_SIZE = 256;
+
+    private final DatabaseClient databaseClient;
+
+    // The fetch size turns subscriber demand into cursor reads, so a slow client throttles the query.
+    public Flux<ItemEntity> findAll() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM items ORDER BY item_id")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(this::mapRow)
+                .all();
+    }
+
+    public Mono<ItemEntity> findById(long itemId) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM items WHERE item_id = :itemId")
+                .bind("itemId", itemId)
+                .map(this::mapRow)
+                .one();
+    }
+
+    public Flux<ItemEntity> findAllByTitle(String title) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM items WHERE title = :title")
+                .bind("title", title)
+                .map(this::mapRow)
+                .all();
+    }
+
+    public Flux<ItemEntity> findAllByPrice(double price) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM items WHERE price = :price")
+                .bind("price", price)
+                .map(this::mapRow)
+                .all();
+    }
+
+    public Flux<ItemEntity> findAllByWeight(double weight) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM items WHERE weight = :weight")
+                .bind("weight", weight)
+                .map(this::mapRow)
+                .all();
+    }
+
+    public Mono<ItemEntity> insert(ItemEntity itemEntity) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("""
+                        INSERT INTO items (title, description, price, weight, version)
+                        VALUES (:title, :description, :price, :weight, 0)
+                        RETURNING\s""" + COLUMNS)
+                .bind("title", itemEntity.getTitle())
+                .bind("price", itemEntity.getPrice())
+                .bind("weight", itemEntity.getWeight());
+        return bindDescription(spec, itemEntity)
+                .map(this::mapRow)
+                .one();
+    }
+
+    public Mono<ItemEntity> update(long itemId, ItemEntity itemEntity) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("""
+                        UPDATE items
+                        SET title = :title, description = :description, price = :price, weight = :weight,
+                            version = version + 1
+                        WHERE item_id = :itemId
+                        RETURNING\s""" + COLUMNS)
+                .bind("itemId", itemId)
+                .bind("title", itemEntity.getTitle())
+                .bind("price", itemEntity.getPrice())
+                .bind("weight", itemEntity.getWeight());
+        return bindDescription(spec, itemEntity)
+                .map(this::mapRow)
+                .one();
+    }
+
+    public Mono<Long> deleteById(long itemId) {
+        return databaseClient.sql("DELETE FROM items WHERE item_id = :itemId")
+                .bind("itemId", itemId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindDescription(DatabaseClient.GenericExecuteSpec spec,
+                                                              ItemEntity itemEntity) {
+        return itemEntity.getDescription() == null
+                ? spec.bindNull("description", String.class)
+                : spec.bind("description", itemEntity.getDescription());
+    }
+
+    private ItemEntity mapRow(Readable row) {
+        return ItemEntity.builder()
+                .itemId(row.get("item_id", Long.class))
+                .title(row.get("title", String.class))
+                .description(row.get("description", String.class))
+                .price(row.get("price", Double.class))
+                .weight(row.get("weight", Double.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
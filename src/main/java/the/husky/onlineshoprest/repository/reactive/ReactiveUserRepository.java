@@ -0,0 +1,123 @@
+package the.husky.onlineshoprest.repository.reactive;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import the.husky.onlineshoprest.entity.UserEntity;
+
+import java.time.LocalDate;
+
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserRepository {
+    private static final String COLUMNS = "user_id, name, login, password, email, age, registration_date, version";
+    private static final int FETCH_SIZE = 256;
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<UserEntity> findAll() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users ORDER BY user_id")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(this::mapRow)
+                .all();
+    }
+
+    public Mono<UserEntity> findById(long userId) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users WHERE user_id = :userId")
+                .bind("userId", userId)
+                .map(this::mapRow)
+                .one();
+    }
+
+    public Mono<UserEntity> findByLogin(String login) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users WHERE login = :login")
+                .bind("login", login)
+                .map(this::mapRow)
+                .one();
+    }
+
+    public Mono<UserEntity> findByEmail(String email) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users WHERE email = :email")
+                .bind("email", email)
+                .map(this::mapRow)
+                .one();
+    }
+
+    public Flux<UserEntity> findAllByName(String name) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users WHERE name = :name")
+                .bind("name", name)
+                .map(this::mapRow)
+                .all();
+    }
+
+    public Flux<UserEntity> findAllByAge(int age) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users WHERE age = :age")
+                .bind("age", age)
+                .map(this::mapRow)
+                .all();
+    }
+
+    public Mono<UserEntity> insert(UserEntity userEntity) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("""
+                        INSERT INTO users (name, login, password, email, age, registration_date, version)
+                        VALUES (:name, :login, :password, :email, :age, :registrationDate, 0)
+                        RETURNING\s""" + COLUMNS)
+                .bind("name", userEntity.getName())
+                .bind("login", userEntity.getLogin())
+                .bind("password", userEntity.getPassword())
+                .bind("age", userEntity.getAge())
+                .bind("registrationDate", LocalDate.now());
+        return bindEmail(spec, userEntity)
+                .map(this::mapRow)
+                .one();
+    }
+
+    public Mono<UserEntity> update(long userId, UserEntity userEntity) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("""
+                        UPDATE users
+                        SET name = :name, login = :login, password = :password, email = :email, age = :age,
+                            version = version + 1
+                        WHERE user_id = :userId
+                        RETURNING\s""" + COLUMNS)
+                .bind("userId", userId)
+                .bind("name", userEntity.getName())
+                .bind("login", userEntity.getLogin())
+                .bind("password", userEntity.getPassword())
+                .bind("age", userEntity.getAge());
+        return bindEmail(spec, userEntity)
+                .map(this::mapRow)
+                .one();
+    }
+
+    public Mono<Long> deleteById(long userId) {
+        return databaseClient.sql("DELETE FROM users WHERE user_id = :userId")
+                .bind("userId", userId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private DatabaseClient.GenericExecuteSpec bindEmail(DatabaseClient.GenericExecuteSpec spec,
+                                                        UserEntity userEntity) {
+        return userEntity.getEmail() == null
+                ? spec.bindNull("email", String.class)
+                : spec.bind("email", userEntity.getEmail());
+    }
+
+    private UserEntity mapRow(Readable row) {
+        return UserEntity.builder()
+                .userId(row.get("user_id", Long.class))
+                .name(row.get("name", String.class))
+                .login(row.get("login", String.class))
+                .password(row.get("password", String.class))
+                .email(row.get("email", String.class))
+                .age(row.get("age", Integer.class))
+                .registrationDate(row.get("registration_date", LocalDate.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
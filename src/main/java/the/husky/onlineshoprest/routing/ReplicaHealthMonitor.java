@@ -0,0 +1,110 @@
+package the.husky.onlineshoprest.routing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import the.husky.onlineshoprest.event.ItemDeletedEvent;
+import the.husky.onlineshoprest.event.ItemSavedEvent;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+
+@Slf4j
+@RequiredArgsConstructor
+public class ReplicaHealthMonitor implements MeterBinder {
+    private static final String METRIC_PREFIX = "shop.datasource.replica";
+    private static final String PRIMARY_POSITION = "SELECT CAST(pg_current_wal_lsn() AS TEXT)";
+    // A replica that has replayed up to the primary's position is current however old its last replay is,
+    // which keeps an idle primary from looking like lag. A stand-in that is not replicating counts as current.
+    private static final String REPLICA_LAG = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() OR pg_last_wal_replay_lsn() >= CAST(? AS pg_lsn) THEN 0
+                       ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000
+                   END""";
+
+    private final DataSource primary;
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final ReplicaRoutingProperties properties;
+    private final TaskScheduler taskScheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        taskScheduler.scheduleWithFixedDelay(this::check, Instant.now(), properties.healthCheckInterval());
+    }
+
+    // The item caches and ETags assume a read after a change sees it, so catalog reads stay on
+    // the primary until a replica within the lag bound has caught up.
+    @EventListener
+    public void onItemSaved(ItemSavedEvent event) {
+        routingDataSource.pinPrimary(properties.maxLag());
+    }
+
+    @EventListener
+    public void onItemDeleted(ItemDeletedEvent event) {
+        routingDataSource.pinPrimary(properties.maxLag());
+    }
+
+    public void onRemoteChange() {
+        routingDataSource.pinPrimary(properties.maxLag());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (ReplicaPool replica : routingDataSource.getReplicas()) {
+            replica.getDataSource().setMetricRegistry(registry);
+            Gauge.builder(METRIC_PREFIX + ".lag", replica, ReplicaPool::getLagMillis)
+                    .description("Replay lag behind the primary at the last health check, -1 when unknown")
+                    .baseUnit("milliseconds")
+                    .tag("pool", replica.getName())
+                    .register(registry);
+            Gauge.builder(METRIC_PREFIX + ".healthy", replica, pool -> pool.isHealthy() ? 1 : 0)
+                    .description("Whether the replica currently takes read-only queries")
+                    .tag("pool", replica.getName())
+                    .register(registry);
+        }
+    }
+
+    private void check() {
+        String primaryPosition;
+        try {
+            primaryPosition = new JdbcTemplate(primary).queryForObject(PRIMARY_POSITION, String.class);
+        } catch (DataAccessException e) {
+            log.warn("Could not read the primary WAL position, replica health unchanged: {}", e.getMessage());
+            return;
+        }
+        for (ReplicaPool replica : routingDataSource.getReplicas()) {
+            check(replica, primaryPosition);
+        }
+    }
+
+    private void check(ReplicaPool replica, String primaryPosition) {
+        boolean healthy;
+        try {
+            Double lag = new JdbcTemplate(replica.getDataSource()).queryForObject(REPLICA_LAG, Double.class,
+                    primaryPosition);
+            // Nothing replayed yet means the replica cannot say how far behind it is.
+            long lagMillis = lag == null ? -1 : lag.longValue();
+            replica.setLagMillis(lagMillis);
+            healthy = lagMillis >= 0 && lagMillis <= properties.maxLag().toMillis();
+        } catch (DataAccessException e) {
+            replica.setLagMillis(-1);
+            healthy = false;
+            log.debug("Replica {} health check failed", replica.getName(), e);
+        }
+        if (healthy != replica.isHealthy()) {
+            if (healthy) {
+                log.info("Replica {} takes reads, lag: {} ms", replica.getName(), replica.getLagMillis());
+            } else {
+                log.warn("Replica {} taken out of rotation, lag: {} ms", replica.getName(), replica.getLagMillis());
+            }
+        }
+        replica.setHealthy(healthy);
+    }
+}
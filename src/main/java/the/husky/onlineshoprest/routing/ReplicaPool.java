@@ -0,0 +1,22 @@
+package the.husky.onlineshoprest.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+@Getter
+@RequiredArgsConstructor
+public class ReplicaPool {
+    private final String name;
+    private final HikariDataSource dataSource;
+    private final LongAdder routedConnections = new LongAdder();
+
+    // A replica takes no reads until its first health check has passed.
+    @Setter
+    private volatile boolean healthy;
+    @Setter
+    private volatile long lagMillis = -1;
+}
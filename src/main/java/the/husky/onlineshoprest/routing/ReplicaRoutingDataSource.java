@@ -0,0 +1,126 @@
+package the.husky.onlineshoprest.routing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Hands out replica connections to read-only transactions and primary connections to everything else.
+// It has to sit behind a LazyConnectionDataSourceProxy: the transaction manager asks for a connection
+// before it marks the transaction read-only, the proxy defers the choice to the first statement.
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder {
+    private static final String METRIC_PREFIX = "shop.datasource";
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<ReplicaPool> replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final AtomicLong primaryPinnedUntil = new AtomicLong();
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<ReplicaPool> replicas) {
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    public static void releasePrimary() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    // Sends every read to the primary for a while, e.g. until the replicas have caught up with a write.
+    public void pinPrimary(Duration duration) {
+        long until = System.currentTimeMillis() + duration.toMillis();
+        primaryPinnedUntil.accumulateAndGet(until, Math::max);
+    }
+
+    public List<ReplicaPool> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        ReplicaPool replica = route();
+        if (replica == null) {
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.getDataSource().getConnection();
+            replica.getRoutedConnections().increment();
+            return connection;
+        } catch (SQLException e) {
+            // The next health check decides when it comes back.
+            replica.setHealthy(false);
+            log.warn("Replica {} refused a connection, reading from the primary: {}", replica.getName(),
+                    e.getMessage());
+            fallbacks.increment();
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    // Picked up as the bean's destroy method, the replica pools aren't beans of their own.
+    public void close() {
+        replicas.forEach(replica -> replica.getDataSource().close());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(METRIC_PREFIX + ".connections", primaryConnections, LongAdder::sum)
+                .description("Connections handed out, by the pool they came from")
+                .tag("pool", "primary")
+                .register(registry);
+        for (ReplicaPool replica : replicas) {
+            FunctionCounter.builder(METRIC_PREFIX + ".connections", replica.getRoutedConnections(), LongAdder::sum)
+                    .description("Connections handed out, by the pool they came from")
+                    .tag("pool", replica.getName())
+                    .register(registry);
+        }
+        FunctionCounter.builder(METRIC_PREFIX + ".replica.fallbacks", fallbacks, LongAdder::sum)
+                .description("Read-only connections that went to the primary because no replica was usable")
+                .register(registry);
+    }
+
+    private ReplicaPool route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || PRIMARY_REQUIRED.get() != null
+                || System.currentTimeMillis() < primaryPinnedUntil.get()) {
+            return null;
+        }
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            ReplicaPool replica = replicas.get((start + i) % size);
+            if (replica.isHealthy()) {
+                return replica;
+            }
+        }
+        fallbacks.increment();
+        return null;
+    }
+}
@@ -0,0 +1,19 @@
+package the.husky.onlineshoprest.routing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "shop.datasource.routing")
+public record ReplicaRoutingProperties(@DefaultValue("false") boolean enabled,
+                                       @DefaultValue List<Replica> replicas,
+                                       @DefaultValue("5s") Duration healthCheckInterval,
+                                       @DefaultValue("1s") Duration maxLag,
+                                       @DefaultValue("1s") Duration connectionTimeout,
+                                       @DefaultValue("5s") Duration readYourWritesWindow) {
+
+    public record Replica(String name, String url, String username, String password) {
+    }
+}
@@ -0,0 +1,326 @@
+package the.husky.onlineshoprest.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import the.husky.onlineshoprest.changes.ChangeFeed;
+import the.husky.onlineshoprest.dto.Change;
+import the.husky.onlineshoprest.dto.Item;
+import the.husky.onlineshoprest.event.ItemDeletedEvent;
+import the.husky.onlineshoprest.event.ItemSavedEvent;
+import the.husky.onlineshoprest.repository.ChangeLogRepository;
+import the.husky.onlineshoprest.repository.ItemStreamRepository;
+import the.husky.onlineshoprest.writebehind.ItemWriteBehind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Writes made through this node are indexed as they happen, the ones made anywhere else (another node, the
+// reactive stack, bulk inserts, plain SQL) arrive through the change feed a poll or two after they commit.
+// The feed carries rows as they are when it is read, so it also settles a local write it raced with.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    private static final String TOKEN_SEPARATOR = "[^\\p{L}\\p{N}]+";
+    private static final int TITLE_BOOST = 3;
+    private static final double EXACT_MATCH_WEIGHT = 1.0;
+    private static final double PREFIX_MATCH_WEIGHT = 0.6;
+    private static final double FUZZY_MATCH_WEIGHT = 0.4;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int LONG_TERM_LENGTH = 8;
+    private static final int FOLLOW_PAGE_SIZE = 1000;
+
+    private final ItemStreamRepository itemStreamRepository;
+    private final ItemWriteBehind itemWriteBehind;
+    private final ChangeLogRepository changeLogRepository;
+    private final ChangeFeed changeFeed;
+    private final TaskScheduler taskScheduler;
+    private final ItemSearchIndexProperties properties;
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    // Terms by length, so a fuzzy match only compares terms that can be within its distance.
+    private final Map<Integer, NavigableSet<String>> termsByLength = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Set<Long> changedDuringBuild;
+    private long followedSeq;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!changeFeed.isAvailable()) {
+            log.warn("Item search index only sees writes made through this node, the change feed is disabled");
+            build();
+            return;
+        }
+        // Read before the build: whatever is sequenced after it is followed, whatever was before is built in.
+        followedSeq = changeLogRepository.lastSeq();
+        build();
+        taskScheduler.scheduleWithFixedDelay(this::follow, properties.followInterval());
+    }
+
+    public void build() {
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long started = System.nanoTime();
+        itemStreamRepository.streamAll(itemEntity -> {
+            lock.writeLock().lock();
+            try {
+                // A write that raced with the build already indexed a fresher version of the row.
+                if (!changedDuringBuild.contains(itemEntity.getItemId())) {
+                    index(itemWriteBehind.overlay(Item.toDto(itemEntity)));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = null;
+            log.info("Item search index built with {} items and {} terms in {} ms", documents.size(),
+                    postings.size(), (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onItemSaved(ItemSavedEvent event) {
+        lock.writeLock().lock();
+        try {
+            markChanged(event.item().getItemId());
+            index(event.item());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onItemDeleted(ItemDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            markChanged(event.itemId());
+            remove(event.itemId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void follow() {
+        try {
+            List<Change<Item>> page;
+            do {
+                page = changeLogRepository.findItemChanges(followedSeq, FOLLOW_PAGE_SIZE);
+                lock.writeLock().lock();
+                try {
+                    for (Change<Item> change : page) {
+                        if (change.isDeleted()) {
+                            remove(change.getId());
+                        } else {
+                            index(itemWriteBehind.overlay(change.getData()));
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (!page.isEmpty()) {
+                    followedSeq = page.get(page.size() - 1).getSeq();
+                }
+            } while (page.size() == FOLLOW_PAGE_SIZE);
+        } catch (RuntimeException e) {
+            // Thrown out of a scheduled task it would cancel every later run.
+            log.warn("Following item changes failed, the search index is behind: {}", e.toString());
+        }
+    }
+
+    public List<Item> search(String query, int limit) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String queryTerm : queryTerms) {
+                Map<Long, Double> termScores = score(queryTerm);
+                // Every query term has to match, so the candidate set only ever shrinks.
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Long, Double> current = scores;
+                    termScores.keySet().retainAll(current.keySet());
+                    termScores.replaceAll((itemId, score) -> score + current.get(itemId));
+                    scores = termScores;
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return topItems(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Double> score(String queryTerm) {
+        Map<Long, Double> scores = new HashMap<>();
+        addScores(scores, queryTerm, EXACT_MATCH_WEIGHT);
+        if (queryTerm.length() >= MIN_PREFIX_LENGTH) {
+            for (String term : postings.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false).keySet()) {
+                addScores(scores, term, PREFIX_MATCH_WEIGHT);
+            }
+        }
+        if (queryTerm.length() >= MIN_FUZZY_LENGTH) {
+            int maxDistance = queryTerm.length() >= LONG_TERM_LENGTH ? 2 : 1;
+            // Typos rarely hit the first character, which keeps the candidate range small.
+            String first = queryTerm.substring(0, 1);
+            for (int length = queryTerm.length() - maxDistance; length <= queryTerm.length() + maxDistance; length++) {
+                NavigableSet<String> terms = termsByLength.get(length);
+                if (terms == null) {
+                    continue;
+                }
+                for (String term : terms.subSet(first, true, first + Character.MAX_VALUE, false)) {
+                    if (!term.startsWith(queryTerm) && isWithinDistance(queryTerm, term, maxDistance)) {
+                        addScores(scores, term, FUZZY_MATCH_WEIGHT);
+                    }
+                }
+            }
+        }
+        return scores;
+    }
+
+    private void addScores(Map<Long, Double> scores, String term, double weight) {
+        Map<Long, Integer> termPostings = postings.get(term);
+        if (termPostings == null) {
+            return;
+        }
+        double idf = Math.log(1.0 + (double) documents.size() / termPostings.size());
+        termPostings.forEach((itemId, frequency) -> {
+            double score = weight * idf * frequency / documents.get(itemId).length();
+            scores.merge(itemId, score, Math::max);
+        });
+    }
+
+    private List<Item> topItems(Map<Long, Double> scores, int limit) {
+        Comparator<Map.Entry<Long, Double>> byScore = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(limit + 1, byScore);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Item> items = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            items.add(documents.get(top.poll().getKey()).item());
+        }
+        Collections.reverse(items);
+        return items;
+    }
+
+    private void index(Item item) {
+        remove(item.getItemId());
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokenize(item.getTitle()).forEach(term -> frequencies.merge(term, TITLE_BOOST, Integer::sum));
+        tokenize(item.getDescription()).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+        documents.put(item.getItemId(), new Document(item, frequencies.keySet(), Math.max(length, 1)));
+        frequencies.forEach((term, frequency) -> {
+            Map<Long, Integer> termPostings = postings.get(term);
+            if (termPostings == null) {
+                termPostings = new HashMap<>();
+                postings.put(term, termPostings);
+                termsByLength.computeIfAbsent(term.length(), key -> new TreeSet<>()).add(term);
+            }
+            termPostings.put(item.getItemId(), frequency);
+        });
+    }
+
+    private void remove(long itemId) {
+        Document document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            Map<Long, Integer> termPostings = postings.get(term);
+            termPostings.remove(itemId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+                NavigableSet<String> terms = termsByLength.get(term.length());
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    termsByLength.remove(term.length());
+                }
+            }
+        }
+    }
+
+    private void markChanged(long itemId) {
+        if (changedDuringBuild != null) {
+            changedDuringBuild.add(itemId);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split(TOKEN_SEPARATOR))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    static boolean isWithinDistance(String left, String right, int maxDistance) {
+        if (Math.abs(left.length() - right.length()) > maxDistance) {
+            return false;
+        }
+        int[] previous = new int[right.length() + 1];
+        int[] current = new int[right.length() + 1];
+        for (int j = 0; j <= right.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= left.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= right.length(); j++) {
+                int substitution = previous[j - 1] + (left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > maxDistance) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[right.length()] <= maxDistance;
+    }
+
+    private record Document(Item item, Set<String> terms, int length) {
+    }
+}
@@ -0,0 +1,10 @@
+package the.husky.onlineshoprest.search;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "shop.items.search")
+public record ItemSearchIndexProperties(@DefaultValue("500ms") Duration followInterval) {
+}
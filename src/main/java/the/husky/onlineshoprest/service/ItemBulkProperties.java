@@ -0,0 +1,8 @@
+package the.husky.onlineshoprest.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "shop.items.bulk")
+public record ItemBulkProperties(@DefaultValue("1000") int batchSize) {
+}
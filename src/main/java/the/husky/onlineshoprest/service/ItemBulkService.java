@@ -0,0 +1,125 @@
+package the.husky.onlineshoprest.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import the.husky.onlineshoprest.cache.ItemCache;
+import the.husky.onlineshoprest.dto.BulkIngestReport;
+import the.husky.onlineshoprest.dto.BulkItemResult;
+import the.husky.onlineshoprest.dto.Item;
+import the.husky.onlineshoprest.entity.ItemEntity;
+import the.husky.onlineshoprest.event.ItemSavedEvent;
+import the.husky.onlineshoprest.exception.item.ItemException;
+import the.husky.onlineshoprest.repository.ItemBatchRepository;
+import the.husky.onlineshoprest.snapshot.CatalogSnapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@Timed("shop.service")
+@Slf4j
+@RequiredArgsConstructor
+public class ItemBulkService {
+    private final ItemBatchRepository itemBatchRepository;
+    private final ItemCache itemCache;
+    private final ItemBulkProperties itemBulkProperties;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogSnapshot catalogSnapshot;
+
+    public BulkIngestReport appendItems(InputStream inputStream) {
+        catalogSnapshot.requireWritable();
+        List<BulkItemResult> results = new ArrayList<>();
+        List<ItemEntity> batch = new ArrayList<>(itemBulkProperties.batchSize());
+        List<BulkItemResult> batchResults = new ArrayList<>(itemBulkProperties.batchSize());
+        try (MappingIterator<ItemEntity> iterator = objectMapper.readerFor(ItemEntity.class).readValues(inputStream)) {
+            for (int index = 0; ; index++) {
+                BulkItemResult result = BulkItemResult.builder().index(index).build();
+                try {
+                    if (!iterator.hasNextValue()) {
+                        break;
+                    }
+                    ItemEntity itemEntity = iterator.nextValue();
+                    results.add(result);
+                    if (isValidItem(itemEntity, result)) {
+                        batch.add(itemEntity);
+                        batchResults.add(result);
+                        if (batch.size() == itemBulkProperties.batchSize()) {
+                            flush(batch, batchResults);
+                        }
+                    }
+                } catch (JsonParseException e) {
+                    // Malformed input cannot be resynchronised, so the rest of the payload is rejected.
+                    result.setError("Malformed input, remaining rows skipped: " + e.getOriginalMessage());
+                    results.add(result);
+                    break;
+                } catch (JsonMappingException e) {
+                    result.setError(e.getOriginalMessage());
+                    results.add(result);
+                }
+            }
+        } catch (IOException e) {
+            String errorMessage = "Error during reading bulk items: " + e.getMessage();
+            log.error(errorMessage);
+            throw new ItemException(errorMessage, e);
+        }
+        flush(batch, batchResults);
+        int rejected = (int) results.stream().filter(result -> result.getError() != null).count();
+        return BulkIngestReport.builder()
+                .accepted(results.size() - rejected)
+                .rejected(rejected)
+                .rows(results)
+                .build();
+    }
+
+    private boolean isValidItem(ItemEntity itemEntity, BulkItemResult result) {
+        Set<ConstraintViolation<ItemEntity>> violations = validator.validate(itemEntity);
+        if (violations.isEmpty()) {
+            return true;
+        }
+        result.setError(violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; ")));
+        return false;
+    }
+
+    private void flush(List<ItemEntity> batch, List<BulkItemResult> batchResults) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            List<Long> ids = itemBatchRepository.insertAll(batch);
+            for (int i = 0; i < ids.size(); i++) {
+                ItemEntity itemEntity = batch.get(i);
+                itemEntity.setItemId(ids.get(i));
+                batchResults.get(i).setItemId(ids.get(i));
+                eventPublisher.publishEvent(new ItemSavedEvent(Item.toDto(itemEntity)));
+            }
+            // One message for the committed batch rather than one per row.
+            itemCache.invalidateOthers();
+        } catch (DataAccessException e) {
+            String errorMessage = "Batch insert failed: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.error("Error during bulk adding items: {}", errorMessage);
+            batchResults.forEach(result -> result.setError(errorMessage));
+        }
+        batch.clear();
+        batchResults.clear();
+    }
+}
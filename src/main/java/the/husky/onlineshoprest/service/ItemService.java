@@ -1,44 +1,255 @@
 package the.husky.onlineshoprest.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import the.husky.onlineshoprest.cache.CatalogVersion;
+import the.husky.onlineshoprest.cache.ItemCache;
+import the.husky.onlineshoprest.cache.ItemJsonCache;
+import the.husky.onlineshoprest.changes.ChangeFeed;
+import the.husky.onlineshoprest.dto.CacheStatistics;
+import the.husky.onlineshoprest.dto.ChangePage;
 import the.husky.onlineshoprest.entity.ItemEntity;
+import the.husky.onlineshoprest.event.ItemDeletedEvent;
+import the.husky.onlineshoprest.event.ItemSavedEvent;
 import the.husky.onlineshoprest.exception.item.ItemException;
 import the.husky.onlineshoprest.exception.item.ItemNotFoundException;
+import the.husky.onlineshoprest.exception.item.ItemVersionConflictException;
 import the.husky.onlineshoprest.dto.Item;
+import the.husky.onlineshoprest.dto.ItemBatch;
+import the.husky.onlineshoprest.dto.ItemPage;
+import the.husky.onlineshoprest.dto.ItemPatch;
+import the.husky.onlineshoprest.dto.ItemSearchCriteria;
+import the.husky.onlineshoprest.dto.ItemSearchResult;
+import the.husky.onlineshoprest.dto.ItemStatistics;
+import the.husky.onlineshoprest.dto.SerializedItem;
+import the.husky.onlineshoprest.dto.TaggedItem;
 import the.husky.onlineshoprest.repository.ItemRepository;
+import the.husky.onlineshoprest.repository.ItemSearchRepository;
+import the.husky.onlineshoprest.repository.ItemStreamRepository;
+import the.husky.onlineshoprest.search.ItemSearchIndex;
+import the.husky.onlineshoprest.snapshot.CatalogSnapshot;
+import the.husky.onlineshoprest.stats.CatalogStatistics;
+import the.husky.onlineshoprest.writebehind.ItemWriteBehind;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
+@Timed("shop.service")
 @Slf4j
 @RequiredArgsConstructor
 public class ItemService {
+    private static final int MAX_PAGE_LIMIT = 1000;
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("itemId", "title", "price", "weight");
+    private static final int MAX_TEXT_SEARCH_LIMIT = 100;
+
     private final ItemRepository itemRepository;
+    private final ItemStreamRepository itemStreamRepository;
+    private final ItemSearchRepository itemSearchRepository;
+    private final ItemCache itemCache;
+    private final ItemJsonCache itemJsonCache;
+    private final ItemSearchIndex itemSearchIndex;
+    private final CatalogStatistics catalogStatistics;
+    private final ChangeFeed changeFeed;
+    private final CatalogSnapshot catalogSnapshot;
+    private final ItemWriteBehind itemWriteBehind;
+    private final CatalogVersion catalogVersion;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Item> getAllItems() {
         List<ItemEntity> itemEntities = itemRepository.findAll();
         return itemEntities.stream()
-                .map(Item::toDto)
+                .map(this::toItem)
                 .toList();
     }
 
+    public void streamAllItems(Consumer<Item> consumer) {
+        if (catalogSnapshot.isDegraded()) {
+            catalogSnapshot.forEach(Long.MIN_VALUE, Integer.MAX_VALUE,
+                    item -> consumer.accept(itemWriteBehind.overlay(item)));
+            return;
+        }
+        itemStreamRepository.streamAll(itemEntity -> consumer.accept(toItem(itemEntity)));
+    }
+
+    public ItemPage getItemsAfter(long after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+            String errorMessage = String.format("Limit should be between 1 and %s", MAX_PAGE_LIMIT);
+            log.error("Error during getting items page: {}", errorMessage);
+            throw new ItemException(errorMessage);
+        }
+        List<Item> items;
+        if (catalogSnapshot.isDegraded()) {
+            List<Item> snapshotItems = new ArrayList<>(limit);
+            catalogSnapshot.forEach(after, limit, item -> snapshotItems.add(itemWriteBehind.overlay(item)));
+            items = snapshotItems;
+        } else {
+            PageRequest pageRequest = PageRequest.of(0, limit, Sort.by("itemId"));
+            items = itemRepository.findAllByItemIdGreaterThan(after, pageRequest).stream()
+                    .map(this::toItem)
+                    .toList();
+        }
+        Long nextAfter = items.size() < limit ? null : items.get(items.size() - 1).getItemId();
+        return ItemPage.builder()
+                .items(items)
+                .nextAfter(nextAfter)
+                .build();
+    }
+
     public Item getItemById(Long id) {
-        ItemEntity itemEntity = itemRepository.findById(id).orElse(null);
-        if (itemEntity == null) {
-            String errorMessage = String.format("Item with id: %s not found", id);
-            log.error("Error during getting item by id: {}", errorMessage);
-            throw new ItemNotFoundException(errorMessage);
+        return findItemById(id)
+                .orElseThrow(() -> new ItemNotFoundException("Item with id: " + id + " not found"));
+    }
+
+    public Optional<Item> findItemById(long id) {
+        if (catalogSnapshot.isDegraded()) {
+            // Kept out of the cache, which would go on serving it after the database is back.
+            return Optional.ofNullable(itemCache.getIfPresent(id))
+                    .or(() -> catalogSnapshot.find(id).map(itemWriteBehind::overlay));
+        }
+        return Optional.ofNullable(itemCache.get(id, this::loadItemById));
+    }
+
+    public Optional<TaggedItem> findTaggedItemById(long id) {
+        return findItemById(id)
+                .map(itemWriteBehind::tag);
+    }
+
+    public Optional<SerializedItem> findSerializedItemById(long id) {
+        return findTaggedItemById(id)
+                .map(itemJsonCache::serialize);
+    }
+
+    public byte[] getSerializedItemsAfter(long after, int limit) {
+        return serializedResult("after:" + after + ":" + limit, () -> getItemsAfter(after, limit));
+    }
+
+    public byte[] getSerializedItemsByTitle(String title) {
+        return serializedResult("title:" + title, () -> getItemsByTitle(title));
+    }
+
+    public byte[] getSerializedItemsByPrice(double price) {
+        return serializedResult("price:" + price, () -> getItemsByPrice(price));
+    }
+
+    public byte[] getSerializedItemsByWeight(double weight) {
+        return serializedResult("weight:" + weight, () -> getItemsByWeight(weight));
+    }
+
+    // Nothing is written while the database is away, so without the suffix a list read from the snapshot
+    // would keep its tag once the database is back.
+    public String getCatalogRevision() {
+        return catalogSnapshot.isDegraded() ? catalogVersion.current() + "-snapshot" : catalogVersion.current();
+    }
+
+    public ItemBatch getItemsByIds(List<Long> ids) {
+        Map<Long, Item> foundItems = catalogSnapshot.isDegraded()
+                ? findItemsInSnapshot(ids)
+                : itemCache.getAll(ids, this::loadItemsByIds);
+        List<Item> items = new ArrayList<>(ids.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            Item item = foundItems.get(id);
+            if (item != null) {
+                items.add(item);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return ItemBatch.builder()
+                .items(items)
+                .missingIds(missingIds)
+                .build();
+    }
+
+    public ItemSearchResult searchItems(ItemSearchCriteria criteria, Pageable pageable) {
+        if (isInvalidRange(criteria.getMinPrice(), criteria.getMaxPrice())
+                || isInvalidRange(criteria.getMinWeight(), criteria.getMaxWeight())) {
+            String errorMessage = "Minimum of a range should not be greater than its maximum";
+            log.error("Error during searching items: {}", errorMessage);
+            throw new ItemException(errorMessage);
+        }
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                String errorMessage = String.format("Items can't be sorted by: %s", order.getProperty());
+                log.error("Error during searching items: {}", errorMessage);
+                throw new ItemException(errorMessage);
+            }
+        }
+        flushPendingEdits();
+        Slice<ItemEntity> slice = itemSearchRepository.search(criteria, pageable);
+        return ItemSearchResult.builder()
+                .items(slice.map(this::toItem).getContent())
+                .page(slice.getNumber())
+                .size(slice.getSize())
+                .hasNext(slice.hasNext())
+                .build();
+    }
+
+    public List<Item> searchItemsByText(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            String errorMessage = "Search query should not be empty";
+            log.error("Error during text search of items: {}", errorMessage);
+            throw new ItemException(errorMessage);
+        }
+        if (limit < 1 || limit > MAX_TEXT_SEARCH_LIMIT) {
+            String errorMessage = String.format("Limit should be between 1 and %s", MAX_TEXT_SEARCH_LIMIT);
+            log.error("Error during text search of items: {}", errorMessage);
+            throw new ItemException(errorMessage);
         }
-        return Item.toDto(itemEntity);
+        return itemSearchIndex.search(query, limit);
+    }
+
+    public CacheStatistics getCacheStatistics() {
+        return itemCache.getStatistics();
+    }
+
+    public ItemStatistics getStatistics() {
+        return catalogStatistics.getStatistics();
+    }
+
+    public boolean isChangeFeedAvailable() {
+        return changeFeed.isAvailable();
+    }
+
+    public ChangePage<Item> getChanges(long since, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+            String errorMessage = String.format("Limit should be between 1 and %s", MAX_PAGE_LIMIT);
+            log.error("Error during getting item changes: {}", errorMessage);
+            throw new ItemException(errorMessage);
+        }
+        return changeFeed.getItemChanges(since, limit);
+    }
+
+    public SseEmitter streamChanges(Long since) {
+        return changeFeed.streamItemChanges(since);
     }
 
     public Item apendItem(ItemEntity itemEntity) {
-        if (!isValidItemTitle(itemEntity)) {
+        catalogSnapshot.requireWritable();
+        if (isValidItemTitle(itemEntity)) {
             ItemEntity item = itemRepository.save(itemEntity);
-            return Item.toDto(item);
+            Item savedItem = toItem(item);
+            itemCache.put(savedItem);
+            eventPublisher.publishEvent(new ItemSavedEvent(savedItem));
+            return savedItem;
         }
         String errorMessage = "Error during adding item, title is empty or null";
         log.error("Error during adding item: {}", errorMessage);
@@ -46,6 +257,10 @@ public class ItemService {
     }
 
     public Item editItem(long id, ItemEntity itemEntity) {
+        catalogSnapshot.requireWritable();
+        if (itemWriteBehind.isEnabled()) {
+            return editItemBehind(id, itemEntity);
+        }
         Optional<ItemEntity> itemOptional = itemRepository.findById(id);
         if (itemOptional.isPresent()) {
             ItemEntity currentItem = itemOptional.get();
@@ -53,58 +268,153 @@ public class ItemService {
             currentItem.setDescription(itemEntity.getDescription());
             currentItem.setPrice(itemEntity.getPrice());
             currentItem.setWeight(itemEntity.getWeight());
-            itemRepository.save(currentItem);
-            return Item.toDto(currentItem);
+            // Without a session around the request the found entity is detached. save merges it into
+            // another instance, and only that one carries the version the update moved to.
+            Item editedItem = toItem(itemRepository.save(currentItem));
+            itemCache.put(editedItem);
+            eventPublisher.publishEvent(new ItemSavedEvent(editedItem));
+            return editedItem;
         }
-        String errorMessage = String.format("Item with id: %s not found", id);
-        log.error("Error during editing item: {}", errorMessage);
-        throw new ItemNotFoundException(errorMessage);
+        throw new ItemNotFoundException("Item with id: " + id + " not found");
+    }
+
+    public Item patchItem(long id, ItemPatch itemPatch, Long expectedVersion) {
+        catalogSnapshot.requireWritable();
+        // The patch and its version check have to run against the latest edits.
+        itemWriteBehind.flush();
+        Optional<ItemEntity> itemOptional = itemRepository.patch(id, itemPatch.getTitle(),
+                itemPatch.getDescription(), itemPatch.getPrice(), itemPatch.getWeight(), expectedVersion);
+        if (itemOptional.isPresent()) {
+            Item patchedItem = toItem(itemOptional.get());
+            itemCache.put(patchedItem);
+            eventPublisher.publishEvent(new ItemSavedEvent(patchedItem));
+            return patchedItem;
+        }
+        if (itemRepository.existsById(id)) {
+            String errorMessage = String.format("Item with id: %s was modified, expected version: %s",
+                    id, expectedVersion);
+            log.error("Error during patching item: {}", errorMessage);
+            throw new ItemVersionConflictException(errorMessage);
+        }
+        throw new ItemNotFoundException("Item with id: " + id + " not found");
     }
 
     public void deleteItem(long id) {
+        catalogSnapshot.requireWritable();
         Optional<ItemEntity> itemOptional = itemRepository.findById(id);
         if (itemOptional.isPresent()) {
             ItemEntity currentItem = itemOptional.get();
             itemRepository.delete(currentItem);
+            itemWriteBehind.discard(id);
+            itemCache.invalidate(id);
+            eventPublisher.publishEvent(new ItemDeletedEvent(id));
         } else {
-            String errorMessage = String.format("Item with id: %s not found", id);
-            log.error("Error during deleting item: {}", errorMessage);
-            throw new ItemNotFoundException(errorMessage);
+            throw new ItemNotFoundException("Item with id: " + id + " not found");
         }
     }
 
     public List<Item> getItemsByTitle(String title) {
+        flushPendingEdits();
         Optional<List<ItemEntity>> itemEntities = itemRepository.findAllByTitle(title);
         if (itemEntities.isPresent()) {
             return itemEntities.get().stream()
-                    .map(Item::toDto)
+                    .map(this::toItem)
                     .toList();
         }
-        String errorMessage = String.format("Items with title: %s not found", title);
-        log.error("Error during getting items by title: {}", errorMessage);
-        throw new ItemNotFoundException(errorMessage);
+        throw new ItemNotFoundException("Items with title: " + title + " not found");
     }
 
     public List<Item> getItemsByPrice(double price) {
+        flushPendingEdits();
         Optional<List<ItemEntity>> itemEntities = itemRepository.findAllByPrice(price);
         if (itemEntities.isPresent()) {
             return itemEntities.get().stream()
-                    .map(Item::toDto)
+                    .map(this::toItem)
                     .toList();
         }
-        String errorMessage = String.format("Items with price: %s not found", price);
-        throw new ItemNotFoundException(errorMessage);
+        throw new ItemNotFoundException("Items with price: " + price + " not found");
     }
 
     public List<Item> getItemsByWeight(double weight) {
+        flushPendingEdits();
         Optional<List<ItemEntity>> itemEntities = itemRepository.findAllByWeight(weight);
         if (itemEntities.isPresent()) {
             return itemEntities.get().stream()
-                    .map(Item::toDto)
+                    .map(this::toItem)
                     .toList();
         }
-        String errorMessage = String.format("Items with weight: %s not found", weight);
-        throw new ItemNotFoundException(errorMessage);
+        throw new ItemNotFoundException("Items with weight: " + weight + " not found");
+    }
+
+    private Item editItemBehind(long id, ItemEntity itemEntity) {
+        Item currentItem = getItemById(id);
+        Item editedItem = Item.builder()
+                .itemId(id)
+                .title(itemEntity.getTitle())
+                .description(itemEntity.getDescription())
+                .price(itemEntity.getPrice())
+                .weight(itemEntity.getWeight())
+                .version(currentItem.getVersion())
+                .build();
+        itemWriteBehind.append(editedItem);
+        // Not put: a flush in between would leave the new content cached under the old version. Reads
+        // go through the pending edit instead, which tags them apart until the flush moves the version.
+        itemCache.invalidate(id);
+        eventPublisher.publishEvent(new ItemSavedEvent(editedItem));
+        return editedItem;
+    }
+
+    // A filter matches rows on what PostgreSQL holds. Pending edits overlaid on them could break the
+    // filter, and an edit that newly matches would be missing, so filtered reads go against the latest
+    // edits, as a patch does. Nothing is written when no edit is pending.
+    private void flushPendingEdits() {
+        if (itemWriteBehind.hasPending()) {
+            itemWriteBehind.flush();
+        }
+    }
+
+    // Results read from the snapshot aren't cached, they would outlast the outage under the same revision.
+    private byte[] serializedResult(String query, Supplier<?> result) {
+        if (catalogSnapshot.isDegraded()) {
+            return itemJsonCache.write(result.get());
+        }
+        return itemJsonCache.serialize(catalogVersion.current(), query, result);
+    }
+
+    // Edits still waiting in the write-behind log win over what PostgreSQL returns.
+    private Item toItem(ItemEntity itemEntity) {
+        return itemWriteBehind.overlay(Item.toDto(itemEntity));
+    }
+
+    // Caffeine doesn't cache a null, so a miss is neither stored nor turned into an exception here.
+    private Item loadItemById(Long id) {
+        return itemRepository.findById(id)
+                .map(this::toItem)
+                .orElse(null);
+    }
+
+    // Only the ids missing from the cache get here, all of them in one query.
+    private Map<Long, Item> loadItemsByIds(Set<? extends Long> ids) {
+        return itemRepository.findAllByItemIds(ids.toArray(Long[]::new)).stream()
+                .map(this::toItem)
+                .collect(Collectors.toMap(Item::getItemId, Function.identity()));
+    }
+
+    // What the cache still holds is at least as fresh as the snapshot.
+    private Map<Long, Item> findItemsInSnapshot(Collection<? extends Long> ids) {
+        Map<Long, Item> items = new HashMap<>();
+        for (Long id : ids) {
+            Item cachedItem = itemCache.getIfPresent(id);
+            Optional<Item> item = cachedItem != null
+                    ? Optional.of(cachedItem)
+                    : catalogSnapshot.find(id).map(itemWriteBehind::overlay);
+            item.ifPresent(found -> items.put(id, found));
+        }
+        return items;
+    }
+
+    private boolean isInvalidRange(Double min, Double max) {
+        return min != null && max != null && min > max;
     }
 
     private boolean isValidItemTitle(ItemEntity itemEntity) {
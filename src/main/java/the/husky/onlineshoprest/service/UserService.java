@@ -1,22 +1,47 @@
 package the.husky.onlineshoprest.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import the.husky.onlineshoprest.bloom.UserLookupFilter;
+import the.husky.onlineshoprest.changes.ChangeFeed;
+import the.husky.onlineshoprest.dto.ChangePage;
 import the.husky.onlineshoprest.entity.UserEntity;
+import the.husky.onlineshoprest.exception.user.InvalidCredentialsException;
 import the.husky.onlineshoprest.exception.user.UserAlreadyExistException;
+import the.husky.onlineshoprest.exception.user.UserException;
 import the.husky.onlineshoprest.exception.user.UserNotFoundException;
+import the.husky.onlineshoprest.exception.user.UserVersionConflictException;
 import the.husky.onlineshoprest.dto.User;
+import the.husky.onlineshoprest.dto.UserBatch;
+import the.husky.onlineshoprest.dto.UserPatch;
+import the.husky.onlineshoprest.password.PasswordHasher;
 import the.husky.onlineshoprest.repository.UserRepository;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
+@Timed("shop.service")
 @Slf4j
 @RequiredArgsConstructor
 public class UserService {
+    private static final int MAX_CHANGES_LIMIT = 1000;
+
     private final UserRepository userRepository;
+    private final UserLookupFilter userLookupFilter;
+    private final PasswordHasher passwordHasher;
+    private final ChangeFeed changeFeed;
 
     public List<User> getAllUsers() {
         List<UserEntity> userEntities = userRepository.findAll();
@@ -25,42 +50,140 @@ public class UserService {
                 .toList();
     }
 
+    public boolean isChangeFeedAvailable() {
+        return changeFeed.isAvailable();
+    }
+
+    public ChangePage<User> getChanges(long since, int limit) {
+        if (limit < 1 || limit > MAX_CHANGES_LIMIT) {
+            String errorMessage = String.format("Limit should be between 1 and %s", MAX_CHANGES_LIMIT);
+            log.error("Error during getting user changes: {}", errorMessage);
+            throw new UserException(errorMessage);
+        }
+        return changeFeed.getUserChanges(since, limit);
+    }
+
+    public SseEmitter streamChanges(Long since) {
+        return changeFeed.streamUserChanges(since);
+    }
+
     public User getUserById(Long id) {
-        UserEntity userEntity = userRepository.findById(id).orElse(null);
-        if (userEntity == null) {
-            String errorMessage = String.format("User with id: %s is not exist", id);
-            log.error("Error during getting user by id: {}", errorMessage);
-            throw new UserNotFoundException(errorMessage);
+        return findUserById(id)
+                .orElseThrow(() -> new UserNotFoundException("User with id: " + id + " is not exist"));
+    }
+
+    public Optional<User> findUserById(long id) {
+        return userRepository.findById(id)
+                .map(User::toDto);
+    }
+
+    public UserBatch getUsersByIds(List<Long> ids) {
+        Map<Long, User> foundUsers = userRepository.findAllByUserIds(ids.stream().distinct().toArray(Long[]::new))
+                .stream()
+                .map(User::toDto)
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<User> users = new ArrayList<>(ids.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : ids) {
+            User user = foundUsers.get(id);
+            if (user != null) {
+                users.add(user);
+            } else {
+                missingIds.add(id);
+            }
         }
-        return User.toDto(userEntity);
+        return UserBatch.builder()
+                .users(users)
+                .missingIds(missingIds)
+                .build();
     }
 
     public User appendUser(UserEntity userEntity) {
-        if (isMandatoryFieldsAlreadyTaken(userEntity)) {
-            String errorMessage = String.format("User with current login: %s || email: %s is already exist",
-                    userEntity.getLogin(), userEntity.getEmail());
+        userEntity.setPassword(passwordHasher.hash(userEntity.getPassword()));
+        userLookupFilter.put(userEntity.getLogin(), userEntity.getEmail());
+        try {
+            UserEntity user = userRepository.saveAndFlush(userEntity);
+            userLookupFilter.put(user.getLogin(), user.getEmail());
+            return User.toDto(user);
+        } catch (DataIntegrityViolationException e) {
+            String errorMessage = getAlreadyExistMessage(userEntity.getLogin(), userEntity.getEmail(), e);
             log.error("Error during adding user: {}", errorMessage);
-            throw new UserAlreadyExistException(errorMessage);
+            throw new UserAlreadyExistException(errorMessage, e);
         }
-        UserEntity user = userRepository.save(userEntity);
-        return User.toDto(user);
     }
 
     public User editUser(long id, UserEntity userEntity) {
         Optional<UserEntity> userOptional = userRepository.findById(id);
         if (userOptional.isPresent()) {
+            String password = passwordHasher.hash(userEntity.getPassword());
             UserEntity currentUser = userOptional.get();
+            if (!Objects.equals(currentUser.getLogin(), userEntity.getLogin())
+                    || !Objects.equals(currentUser.getEmail(), userEntity.getEmail())) {
+                userLookupFilter.markStale();
+            }
+            userLookupFilter.put(userEntity.getLogin(), userEntity.getEmail());
             currentUser.setName(userEntity.getName());
             currentUser.setLogin(userEntity.getLogin());
-            currentUser.setPassword(userEntity.getPassword());
+            currentUser.setPassword(password);
             currentUser.setEmail(userEntity.getEmail());
             currentUser.setAge(userEntity.getAge());
-            userRepository.save(currentUser);
-            return User.toDto(currentUser);
+            UserEntity savedUser;
+            // The found entity may be detached, only the merged one carries the new version.
+            try {
+                savedUser = userRepository.saveAndFlush(currentUser);
+                userLookupFilter.put(savedUser.getLogin(), savedUser.getEmail());
+            } catch (DataIntegrityViolationException e) {
+                String errorMessage = getAlreadyExistMessage(userEntity.getLogin(), userEntity.getEmail(), e);
+                log.error("Error during editing user: {}", errorMessage);
+                throw new UserAlreadyExistException(errorMessage, e);
+            }
+            return User.toDto(savedUser);
+        }
+        throw new UserNotFoundException("User with id: " + id + " is not exist");
+    }
+
+    public User patchUser(long id, UserPatch userPatch, Long expectedVersion) {
+        Optional<UserEntity> userOptional;
+        String password = userPatch.getPassword() == null ? null : passwordHasher.hash(userPatch.getPassword());
+        userLookupFilter.put(userPatch.getLogin(), userPatch.getEmail());
+        try {
+            userOptional = userRepository.patch(id, userPatch.getName(), userPatch.getLogin(),
+                    password, userPatch.getEmail(), userPatch.getAge(), expectedVersion);
+        } catch (DataIntegrityViolationException e) {
+            String errorMessage = getAlreadyExistMessage(userPatch.getLogin(), userPatch.getEmail(), e);
+            log.error("Error during patching user: {}", errorMessage);
+            throw new UserAlreadyExistException(errorMessage, e);
+        }
+        if (userOptional.isPresent()) {
+            UserEntity patchedUser = userOptional.get();
+            userLookupFilter.put(patchedUser.getLogin(), patchedUser.getEmail());
+            if (userPatch.getLogin() != null || userPatch.getEmail() != null) {
+                userLookupFilter.markStale();
+            }
+            return User.toDto(patchedUser);
+        }
+        if (userRepository.existsById(id)) {
+            String errorMessage = String.format("User with id: %s was modified, expected version: %s",
+                    id, expectedVersion);
+            log.error("Error during patching user: {}", errorMessage);
+            throw new UserVersionConflictException(errorMessage);
+        }
+        throw new UserNotFoundException("User with id: " + id + " is not exist");
+    }
+
+    public User login(String login, String password) {
+        Optional<UserEntity> userOptional = userRepository.findByLogin(login);
+        if (userOptional.isEmpty()) {
+            // Answered no sooner than a wrong password, or the timing would tell which logins exist.
+            passwordHasher.verifyUnknownUser(password);
+        }
+        UserEntity user = userOptional
+                .filter(candidate -> passwordHasher.matches(password, candidate.getPassword()))
+                .orElseThrow(() -> new InvalidCredentialsException("Login or password is incorrect"));
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            rehash(user, password);
         }
-        String errorMessage = String.format("User with id: %s is not exist", id);
-        log.error("Error during editing user: {}", errorMessage);
-        throw new UserNotFoundException(errorMessage);
+        return User.toDto(user);
     }
 
     public void deleteUser(long id) {
@@ -68,33 +191,44 @@ public class UserService {
         if (userOptional.isPresent()) {
             UserEntity currentUser = userOptional.get();
             userRepository.delete(currentUser);
+            userLookupFilter.markStale();
         } else {
-            String errorMessage = String.format("User with id: %s is not exist", id);
-            log.error("Error during deleting user: {}", errorMessage);
-            throw new UserNotFoundException(errorMessage);
+            throw new UserNotFoundException("User with id: " + id + " is not exist");
         }
     }
 
     public User getUserByLogin(String login) {
-        Optional<UserEntity> userOptional = userRepository.findByLogin(login);
-        if (userOptional.isPresent()) {
-            UserEntity currentUser = userOptional.get();
-            return User.toDto(currentUser);
+        return findUserByLogin(login)
+                .orElseThrow(() -> new UserNotFoundException("User with login: " + login + " is not exist"));
+    }
+
+    public Optional<User> findUserByLogin(String login) {
+        if (!userLookupFilter.mightContainLogin(login)) {
+            return Optional.empty();
         }
-        String errorMessage = String.format("User with login: %s is not exist", login);
-        log.error("Error during getting user by login: {}", errorMessage);
-        throw new UserNotFoundException(errorMessage);
+        return userRepository.findByLogin(login)
+                .map(User::toDto);
     }
 
     public User getUserByEmail(String email) {
-        Optional<UserEntity> userOptional = userRepository.findByEmail(email);
-        if (userOptional.isPresent()) {
-            UserEntity currentUser = userOptional.get();
-            return User.toDto(currentUser);
+        return findUserByEmail(email)
+                .orElseThrow(() -> new UserNotFoundException("User with email: " + email + " is not exist"));
+    }
+
+    public Optional<User> findUserByEmail(String email) {
+        if (!userLookupFilter.mightContainEmail(email)) {
+            return Optional.empty();
         }
-        String errorMessage = String.format("User with email: %s is not exist", email);
-        log.error("Error during getting user by email: {}", errorMessage);
-        throw new UserNotFoundException(errorMessage);
+        return userRepository.findByEmail(email)
+                .map(User::toDto);
+    }
+
+    public boolean isLoginTaken(String login) {
+        return userLookupFilter.mightContainLogin(login) && userRepository.existsByLogin(login);
+    }
+
+    public boolean isEmailTaken(String email) {
+        return userLookupFilter.mightContainEmail(email) && userRepository.existsByEmail(email);
     }
 
     public List<User> getAllUsersByName(String name) {
@@ -105,9 +239,7 @@ public class UserService {
                     .map(User::toDto)
                     .toList();
         }
-        String errorMessage = String.format("User with name: %s is not exist", name);
-        log.error("Error during getting user by name: {}", errorMessage);
-        throw new UserNotFoundException(errorMessage);
+        throw new UserNotFoundException("User with name: " + name + " is not exist");
     }
 
     public List<User> getAllUsersByAge(int age) {
@@ -118,13 +250,31 @@ public class UserService {
                     .map(User::toDto)
                     .toList();
         }
-        String errorMessage = String.format("User with age: %s is not exist", age);
-        log.error("Error during getting user by age: {}", errorMessage);
-        throw new UserNotFoundException(errorMessage);
+        throw new UserNotFoundException("User with age: " + age + " is not exist");
     }
 
-    private boolean isMandatoryFieldsAlreadyTaken(UserEntity userEntity) {
-        return userRepository.findByLogin(userEntity.getLogin()).isPresent() ||
-                userRepository.findByEmail(userEntity.getEmail()).isPresent();
+    // Only the login knows the plain password, so it is the one chance to move a stored password
+    // to the current cost. A concurrent edit wins, the next login tries again.
+    private void rehash(UserEntity user, String password) {
+        user.setPassword(passwordHasher.hash(password));
+        try {
+            userRepository.save(user);
+        } catch (OptimisticLockingFailureException e) {
+            log.debug("Skipped rehashing the password of user {}, it was modified concurrently", user.getUserId());
+        }
+    }
+
+    // Any other violation isn't a conflict, it goes on to the exception handler as it is.
+    private String getAlreadyExistMessage(String login, String email, DataIntegrityViolationException e) {
+        String constraintName = e.getCause() instanceof ConstraintViolationException violation
+                ? violation.getConstraintName()
+                : null;
+        if (UserEntity.LOGIN_CONSTRAINT.equals(constraintName)) {
+            return String.format("User with current login: %s is already exist", login);
+        }
+        if (UserEntity.EMAIL_CONSTRAINT.equals(constraintName)) {
+            return String.format("User with current email: %s is already exist", email);
+        }
+        throw e;
     }
 }
@@ -0,0 +1,97 @@
+package the.husky.onlineshoprest.service.reactive;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import the.husky.onlineshoprest.cache.ItemCache;
+import the.husky.onlineshoprest.dto.Item;
+import the.husky.onlineshoprest.entity.ItemEntity;
+import the.husky.onlineshoprest.event.ItemDeletedEvent;
+import the.husky.onlineshoprest.event.ItemSavedEvent;
+import the.husky.onlineshoprest.exception.item.ItemException;
+import the.husky.onlineshoprest.exception.item.ItemNotFoundException;
+import the.husky.onlineshoprest.repository.reactive.ReactiveItemRepository;
+
+@Service
+@Profile("reactive")
+@Timed("shop.service")
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveItemService {
+    private final ReactiveItemRepository itemRepository;
+    private final ItemCache itemCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public Flux<Item> getAllItems() {
+        return itemRepository.findAll()
+                .map(Item::toDto);
+    }
+
+    public Mono<Item> getItemById(long id) {
+        // A missing row completes the load with null, which Caffeine doesn't keep. Cancelling one request
+        // leaves the load running for the others waiting on it.
+        return Mono.fromFuture(() -> itemCache.getAsync(id, key -> itemRepository.findById(key)
+                        .map(Item::toDto)
+                        .toFuture()), true)
+                .switchIfEmpty(Mono.error(() -> notFound(id)));
+    }
+
+    public Mono<Item> apendItem(ItemEntity itemEntity) {
+        if (itemEntity.getTitle() == null || itemEntity.getTitle().isEmpty()) {
+            String errorMessage = "Error during adding item, title is empty or null";
+            log.error("Error during adding item: {}", errorMessage);
+            return Mono.error(new ItemException(errorMessage));
+        }
+        return itemRepository.insert(itemEntity)
+                .map(Item::toDto)
+                .doOnNext(this::onSaved);
+    }
+
+    public Mono<Item> editItem(long id, ItemEntity itemEntity) {
+        return itemRepository.update(id, itemEntity)
+                .map(Item::toDto)
+                .doOnNext(this::onSaved)
+                .switchIfEmpty(Mono.error(() -> notFound(id)));
+    }
+
+    public Mono<Void> deleteItem(long id) {
+        return itemRepository.deleteById(id)
+                .flatMap(deleted -> {
+                    if (deleted == 0) {
+                        return Mono.error(notFound(id));
+                    }
+                    itemCache.invalidate(id);
+                    eventPublisher.publishEvent(new ItemDeletedEvent(id));
+                    return Mono.empty();
+                });
+    }
+
+    public Flux<Item> getItemsByTitle(String title) {
+        return itemRepository.findAllByTitle(title)
+                .map(Item::toDto);
+    }
+
+    public Flux<Item> getItemsByPrice(double price) {
+        return itemRepository.findAllByPrice(price)
+                .map(Item::toDto);
+    }
+
+    public Flux<Item> getItemsByWeight(double weight) {
+        return itemRepository.findAllByWeight(weight)
+                .map(Item::toDto);
+    }
+
+    private void onSaved(Item item) {
+        itemCache.put(item);
+        eventPublisher.publishEvent(new ItemSavedEvent(item));
+    }
+
+    private ItemNotFoundException notFound(long id) {
+        return new ItemNotFoundException("Item with id: " + id + " not found");
+    }
+}
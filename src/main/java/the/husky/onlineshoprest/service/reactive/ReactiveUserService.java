@@ -0,0 +1,112 @@
+package the.husky.onlineshoprest.service.reactive;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import the.husky.onlineshoprest.dto.User;
+import the.husky.onlineshoprest.entity.UserEntity;
+import the.husky.onlineshoprest.exception.user.UserAlreadyExistException;
+import the.husky.onlineshoprest.exception.user.UserNotFoundException;
+import the.husky.onlineshoprest.password.PasswordHasher;
+import the.husky.onlineshoprest.repository.reactive.ReactiveUserRepository;
+
+@Service
+@Profile("reactive")
+@Timed("shop.service")
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveUserService {
+    private final ReactiveUserRepository userRepository;
+    private final PasswordHasher passwordHasher;
+
+    public Flux<User> getAllUsers() {
+        return userRepository.findAll()
+                .map(User::toDto);
+    }
+
+    public Mono<User> getUserById(long id) {
+        return userRepository.findById(id)
+                .map(User::toDto)
+                .switchIfEmpty(Mono.error(() -> notFound("id", id)));
+    }
+
+    public Mono<User> appendUser(UserEntity userEntity) {
+        return hashPassword(userEntity)
+                .flatMap(userRepository::insert)
+                .map(User::toDto)
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> alreadyExist(userEntity, e, "adding user"));
+    }
+
+    public Mono<User> editUser(long id, UserEntity userEntity) {
+        return hashPassword(userEntity)
+                .flatMap(hashed -> userRepository.update(id, hashed))
+                .map(User::toDto)
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> alreadyExist(userEntity, e, "editing user"))
+                .switchIfEmpty(Mono.error(() -> notFound("id", id)));
+    }
+
+    public Mono<Void> deleteUser(long id) {
+        return userRepository.deleteById(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(notFound("id", id))
+                        : Mono.empty());
+    }
+
+    public Mono<User> getUserByLogin(String login) {
+        return userRepository.findByLogin(login)
+                .map(User::toDto)
+                .switchIfEmpty(Mono.error(() -> notFound("login", login)));
+    }
+
+    public Mono<User> getUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .map(User::toDto)
+                .switchIfEmpty(Mono.error(() -> notFound("email", email)));
+    }
+
+    public Flux<User> getAllUsersByName(String name) {
+        return userRepository.findAllByName(name)
+                .map(User::toDto);
+    }
+
+    public Flux<User> getAllUsersByAge(int age) {
+        return userRepository.findAllByAge(age)
+                .map(User::toDto);
+    }
+
+    // The hashing pool completes the future, so no event loop thread spends time on BCrypt.
+    private Mono<UserEntity> hashPassword(UserEntity userEntity) {
+        return Mono.fromFuture(() -> passwordHasher.hashAsync(userEntity.getPassword()))
+                .map(hash -> {
+                    userEntity.setPassword(hash);
+                    return userEntity;
+                });
+    }
+
+    private UserNotFoundException notFound(String field, Object value) {
+        return new UserNotFoundException("User with " + field + ": " + value + " is not exist");
+    }
+
+    private UserAlreadyExistException alreadyExist(UserEntity userEntity, DataIntegrityViolationException e,
+                                                   String operation) {
+        String message = e.getMessage() == null ? "" : e.getMessage();
+        String errorMessage;
+        if (message.contains(UserEntity.LOGIN_CONSTRAINT)) {
+            errorMessage = String.format("User with current login: %s is already exist", userEntity.getLogin());
+        } else if (message.contains(UserEntity.EMAIL_CONSTRAINT)) {
+            errorMessage = String.format("User with current email: %s is already exist", userEntity.getEmail());
+        } else {
+            errorMessage = String.format("User with current login: %s || email: %s is already exist",
+                    userEntity.getLogin(), userEntity.getEmail());
+        }
+        log.error("Error during {}: {}", operation, errorMessage);
+        return new UserAlreadyExistException(errorMessage, e);
+    }
+}
@@ -0,0 +1,353 @@
+package the.husky.onlineshoprest.snapshot;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import the.husky.onlineshoprest.changes.ChangeFeed;
+import the.husky.onlineshoprest.dto.Change;
+import the.husky.onlineshoprest.dto.Item;
+import the.husky.onlineshoprest.event.ItemDeletedEvent;
+import the.husky.onlineshoprest.event.ItemSavedEvent;
+import the.husky.onlineshoprest.exception.item.CatalogReadOnlyException;
+import the.husky.onlineshoprest.repository.ChangeLogRepository;
+import the.husky.onlineshoprest.repository.ItemStreamRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// The catalog as of the last snapshot on disk, mapped rather than loaded, plus the rows the change feed
+// reports changed since and the writes made through this node. It is only read while the database is away:
+// served as it is, however old, rather than failing the read. The feed trails a commit by its polls, so
+// with the database up it would hand back rows from before a write that already returned.
+@Slf4j
+@Component
+public class CatalogSnapshot {
+    private static final int FOLLOW_PAGE_SIZE = 1000;
+    // Once this many changed rows are held on the heap, the next snapshot is written straight away.
+    private static final int MIN_CHANGES_BEFORE_REWRITE = 10_000;
+    // Sorts a local write after every snapshot, so only the feed replaces it.
+    private static final long LOCAL_SEQ = Long.MAX_VALUE;
+
+    private final CatalogSnapshotProperties properties;
+    private final ItemStreamRepository itemStreamRepository;
+    private final ChangeLogRepository changeLogRepository;
+    private final ChangeFeed changeFeed;
+    private final DatabaseAvailability databaseAvailability;
+    private final Counter reads;
+    // Writing takes seconds, the other thread keeps following and checking the database meanwhile.
+    private final ScheduledExecutorService executor =
+            Executors.newScheduledThreadPool(2, new CustomizableThreadFactory("catalog-snapshot-"));
+    private final AtomicBoolean writing = new AtomicBoolean();
+
+    // Only taken for writing to install a new snapshot together with the changes it already holds.
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // A change without data is a deletion.
+    private final ConcurrentNavigableMap<Long, Change<Item>> changes = new ConcurrentSkipListMap<>();
+    // Item to the follow round that was running when this node wrote it, guarded by itself.
+    private final Map<Long, Long> localWrites = new HashMap<>();
+    private final AtomicLong followRounds = new AtomicLong();
+    private volatile CatalogSnapshotFile file;
+    private volatile long followedSeq;
+    private volatile boolean current;
+
+    public CatalogSnapshot(CatalogSnapshotProperties properties, ItemStreamRepository itemStreamRepository,
+                           ChangeLogRepository changeLogRepository, ChangeFeed changeFeed,
+                           DatabaseAvailability databaseAvailability, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.itemStreamRepository = itemStreamRepository;
+        this.changeLogRepository = changeLogRepository;
+        this.changeFeed = changeFeed;
+        this.databaseAvailability = databaseAvailability;
+        this.reads = Counter.builder("shop.items.snapshot.reads")
+                .description("Catalog reads served from the snapshot while the database was unavailable")
+                .register(meterRegistry);
+        Gauge.builder("shop.items.snapshot.items", this, CatalogSnapshot::itemCount)
+                .description("Items in the mapped catalog snapshot")
+                .register(meterRegistry);
+        Gauge.builder("shop.items.snapshot.changes", changes, Map::size)
+                .description("Items changed since the snapshot was written, held on the heap")
+                .register(meterRegistry);
+        Gauge.builder("shop.items.snapshot.age", this, CatalogSnapshot::ageSeconds)
+                .description("Time since the mapped snapshot was written, -1 without one")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        Path path = properties.path();
+        if (Files.exists(path)) {
+            long started = System.nanoTime();
+            try {
+                install(CatalogSnapshotFile.open(path));
+                log.info("Catalog snapshot of {} items written at {} mapped in {} ms", file.count(),
+                        file.writtenAt(), (System.nanoTime() - started) / 1_000_000);
+            } catch (IOException e) {
+                log.warn("Catalog snapshot not used, it is rewritten: {}", e.getMessage());
+            }
+        }
+        long writeMillis = properties.writeInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::checkDatabase, 0, properties.healthCheckInterval().toMillis(),
+                TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::follow, 0, properties.followInterval().toMillis(),
+                TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::write, file == null ? 0 : writeMillis, writeMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    // The database doesn't answer, the snapshot is all there is to read.
+    public boolean isDegraded() {
+        return file != null && !databaseAvailability.isAvailable();
+    }
+
+    // Writes would only queue for a connection that isn't coming.
+    public void requireWritable() {
+        if (properties.enabled() && !databaseAvailability.isAvailable()) {
+            throw new CatalogReadOnlyException("The catalog is read-only while the database is unavailable",
+                    properties.healthCheckInterval());
+        }
+    }
+
+    // Only for when isDegraded() said so.
+    public Optional<Item> find(long itemId) {
+        reads.increment();
+        lock.readLock().lock();
+        try {
+            Change<Item> change = changes.get(itemId);
+            if (change != null) {
+                return Optional.ofNullable(change.getData());
+            }
+            int index = file.indexOf(itemId);
+            return index < 0 ? Optional.empty() : Optional.of(file.read(index));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Items in id order, from the first one past after. The consumer runs outside the lock, a mapping that
+    // has been replaced stays readable for as long as it is referenced, so a slow client holds up nothing.
+    public void forEach(long after, int limit, Consumer<Item> consumer) {
+        reads.increment();
+        CatalogSnapshotFile snapshotFile;
+        NavigableMap<Long, Change<Item>> changed;
+        lock.readLock().lock();
+        try {
+            snapshotFile = file;
+            changed = new TreeMap<>(changes.tailMap(after, false));
+        } finally {
+            lock.readLock().unlock();
+        }
+        int index = snapshotFile.firstIndexAfter(after);
+        Iterator<Change<Item>> changeIterator = changed.values().iterator();
+        Change<Item> change = changeIterator.hasNext() ? changeIterator.next() : null;
+        int count = 0;
+        while (count < limit && (index < snapshotFile.count() || change != null)) {
+            Item item;
+            if (change != null && (index == snapshotFile.count() || change.getId() <= snapshotFile.id(index))) {
+                if (index < snapshotFile.count() && change.getId() == snapshotFile.id(index)) {
+                    index++;
+                }
+                item = change.getData();
+                change = changeIterator.hasNext() ? changeIterator.next() : null;
+            } else {
+                item = snapshotFile.read(index++);
+            }
+            if (item != null) {
+                consumer.accept(item);
+                count++;
+            }
+        }
+    }
+
+    @EventListener
+    public void onItemSaved(ItemSavedEvent event) {
+        Item item = event.item();
+        applyLocally(Change.<Item>builder().seq(LOCAL_SEQ).id(item.getItemId()).data(item).build());
+    }
+
+    @EventListener
+    public void onItemDeleted(ItemDeletedEvent event) {
+        applyLocally(Change.<Item>builder().seq(LOCAL_SEQ).id(event.itemId()).deleted(true).build());
+    }
+
+    // The feed reports a write once it is sequenced, half a second later or longer behind an older open
+    // transaction. Until then this node's own write is what the snapshot shows for the item.
+    private void applyLocally(Change<Item> change) {
+        if (file == null) {
+            return;
+        }
+        synchronized (localWrites) {
+            localWrites.put(change.getId(), followRounds.get());
+            changes.put(change.getId(), change);
+        }
+    }
+
+    private void install(CatalogSnapshotFile snapshotFile) {
+        lock.writeLock().lock();
+        try {
+            file = snapshotFile;
+            long changeSeq = snapshotFile.changeSeq();
+            if (changeSeq == CatalogSnapshotFile.NO_CHANGE_SEQ) {
+                synchronized (localWrites) {
+                    localWrites.clear();
+                    changes.clear();
+                }
+                current = false;
+                return;
+            }
+            // What the snapshot holds already needs no overlaying, what came later still does.
+            changes.values().removeIf(change -> change.getSeq() <= changeSeq);
+            followedSeq = Math.max(followedSeq, changeSeq);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void follow() {
+        CatalogSnapshotFile snapshotFile = file;
+        if (snapshotFile == null || snapshotFile.changeSeq() == CatalogSnapshotFile.NO_CHANGE_SEQ
+                || !changeFeed.isAvailable() || !databaseAvailability.isAvailable()) {
+            current = false;
+            return;
+        }
+        // A round that started before a local write may read the row from before it.
+        long round = followRounds.incrementAndGet();
+        try {
+            List<Change<Item>> page;
+            do {
+                page = changeLogRepository.findItemChanges(followedSeq, FOLLOW_PAGE_SIZE);
+                lock.readLock().lock();
+                try {
+                    // A snapshot written since the page was read may be newer than some of its rows.
+                    long changeSeq = file.changeSeq();
+                    synchronized (localWrites) {
+                        for (Change<Item> change : page) {
+                            if (change.getSeq() > changeSeq && !isLocallyNewer(change.getId(), round)) {
+                                changes.put(change.getId(), change);
+                            }
+                        }
+                    }
+                    if (!page.isEmpty()) {
+                        followedSeq = Math.max(followedSeq, page.get(page.size() - 1).getSeq());
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+            } while (page.size() == FOLLOW_PAGE_SIZE);
+            if (!current) {
+                log.info("Catalog snapshot is current up to change {}, {} items changed since it was written",
+                        followedSeq, changes.size());
+            }
+            current = true;
+            if (changes.size() > Math.max(MIN_CHANGES_BEFORE_REWRITE, file.count() / 10)) {
+                executor.execute(this::write);
+            }
+        } catch (RuntimeException e) {
+            // Thrown out of a scheduled task it would cancel every later run.
+            if (current && databaseAvailability.isAvailable()) {
+                log.warn("Following item changes failed, the catalog snapshot is behind: {}", e.toString());
+            }
+            current = false;
+        }
+    }
+
+    private void write() {
+        if (!databaseAvailability.isAvailable() || !writing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long started = System.nanoTime();
+            Instant writtenAt = Instant.now();
+            // Read before the rows are: everything up to it is in them. Later changes may be as well, the
+            // feed replays them on top either way, it carries rows as they are and not what changed.
+            long changeSeq = changeFeed.isAvailable()
+                    ? changeLogRepository.lastSeq()
+                    : CatalogSnapshotFile.NO_CHANGE_SEQ;
+            CatalogSnapshotFile written;
+            try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(properties.path())) {
+                itemStreamRepository.streamAll(itemEntity -> {
+                    try {
+                        writer.write(Item.toDto(itemEntity));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                written = writer.commit(changeSeq, writtenAt);
+            }
+            install(written);
+            log.info("Catalog snapshot of {} items written to {} in {} ms", written.count(), written.path(),
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Writing the catalog snapshot failed: {}", e.toString());
+        } finally {
+            writing.set(false);
+        }
+    }
+
+    private void checkDatabase() {
+        try {
+            databaseAvailability.check();
+        } catch (RuntimeException e) {
+            log.warn("Database health check failed: {}", e.toString());
+        }
+    }
+
+    private boolean isLocallyNewer(long itemId, long round) {
+        Long localRound = localWrites.get(itemId);
+        if (localRound == null) {
+            return false;
+        }
+        if (localRound >= round) {
+            return true;
+        }
+        localWrites.remove(itemId);
+        return false;
+    }
+
+    private double itemCount() {
+        CatalogSnapshotFile snapshotFile = file;
+        return snapshotFile == null ? 0 : snapshotFile.count();
+    }
+
+    private double ageSeconds() {
+        CatalogSnapshotFile snapshotFile = file;
+        return snapshotFile == null
+                ? -1
+                : Duration.between(snapshotFile.writtenAt(), Instant.now()).toMillis() / 1000.0;
+    }
+}
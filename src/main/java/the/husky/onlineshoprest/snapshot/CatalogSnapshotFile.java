@@ -0,0 +1,156 @@
+package the.husky.onlineshoprest.snapshot;
+
+import the.husky.onlineshoprest.dto.Item;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+// A snapshot of the items table, read in place from a memory mapping. Little-endian throughout:
+//   header   64 bytes: magic, format version, item count, written at, change seq, heap length, checksum
+//   ids      8 bytes an item, ascending, the id index: the n-th id belongs to the n-th record
+//   records  40 bytes an item: version, price, weight, offset and length of the title and the description
+//   heap     the UTF-8 text the records point into, a length of -1 stands for null
+// Ids are kept apart from the records so that a lookup's binary search runs over one dense array.
+final class CatalogSnapshotFile {
+    static final int MAGIC = 0x50414e53;
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int ID_SIZE = Long.BYTES;
+    static final int RECORD_SIZE = 40;
+
+    static final int MAGIC_AT = 0;
+    static final int FORMAT_VERSION_AT = 4;
+    static final int COUNT_AT = 8;
+    static final int WRITTEN_AT = 16;
+    static final int CHANGE_SEQ_AT = 24;
+    static final int HEAP_LENGTH_AT = 32;
+    static final int CHECKSUM_AT = 40;
+
+    static final int VERSION_AT = 0;
+    static final int PRICE_AT = 8;
+    static final int WEIGHT_AT = 16;
+    static final int TITLE_AT = 24;
+    static final int DESCRIPTION_AT = 32;
+
+    // A snapshot written without the change feed can't be brought up to date.
+    static final long NO_CHANGE_SEQ = -1;
+
+    private final Path path;
+    // Only read with absolute gets, which leave the position alone, so every thread can share it.
+    private final ByteBuffer buffer;
+    private final int count;
+    private final Instant writtenAt;
+    private final long changeSeq;
+    private final int recordsAt;
+    private final int heapAt;
+
+    private CatalogSnapshotFile(Path path, ByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        this.count = buffer.getInt(COUNT_AT);
+        this.writtenAt = Instant.ofEpochMilli(buffer.getLong(WRITTEN_AT));
+        this.changeSeq = buffer.getLong(CHANGE_SEQ_AT);
+        this.recordsAt = HEADER_SIZE + count * ID_SIZE;
+        this.heapAt = recordsAt + count * RECORD_SIZE;
+    }
+
+    // The mapping outlives the channel. Checking the sum reads the whole file once, usually from the page cache.
+    static CatalogSnapshotFile open(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot " + path + " has an invalid size of " + size + " bytes");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (buffer.getInt(MAGIC_AT) != MAGIC || buffer.getInt(FORMAT_VERSION_AT) != FORMAT_VERSION) {
+            throw new IOException("Catalog snapshot " + path + " is not in format version " + FORMAT_VERSION);
+        }
+        long count = buffer.getInt(COUNT_AT);
+        long expectedSize = HEADER_SIZE + count * (ID_SIZE + RECORD_SIZE) + buffer.getLong(HEAP_LENGTH_AT);
+        if (count < 0 || expectedSize != buffer.capacity()) {
+            throw new IOException("Catalog snapshot " + path + " is truncated");
+        }
+        if (checksum(buffer) != buffer.getLong(CHECKSUM_AT)) {
+            throw new IOException("Catalog snapshot " + path + " is corrupt, its checksum doesn't match");
+        }
+        return new CatalogSnapshotFile(path, buffer);
+    }
+
+    static long checksum(ByteBuffer buffer) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(HEADER_SIZE, buffer.capacity() - HEADER_SIZE));
+        return crc.getValue();
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int count() {
+        return count;
+    }
+
+    Instant writtenAt() {
+        return writtenAt;
+    }
+
+    long changeSeq() {
+        return changeSeq;
+    }
+
+    long id(int index) {
+        return buffer.getLong(HEADER_SIZE + index * ID_SIZE);
+    }
+
+    // -1 when the snapshot doesn't hold the item.
+    int indexOf(long itemId) {
+        int index = firstIndexAfter(itemId) - 1;
+        return index >= 0 && id(index) == itemId ? index : -1;
+    }
+
+    // Where the first item with a greater id is, count when there is none.
+    int firstIndexAfter(long itemId) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (id(middle) <= itemId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    Item read(int index) {
+        int record = recordsAt + index * RECORD_SIZE;
+        return Item.builder()
+                .itemId(id(index))
+                .title(string(record + TITLE_AT))
+                .description(string(record + DESCRIPTION_AT))
+                .price(buffer.getDouble(record + PRICE_AT))
+                .weight(buffer.getDouble(record + WEIGHT_AT))
+                .version(buffer.getLong(record + VERSION_AT))
+                .build();
+    }
+
+    private String string(int reference) {
+        int length = buffer.getInt(reference + Integer.BYTES);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(heapAt + buffer.getInt(reference), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
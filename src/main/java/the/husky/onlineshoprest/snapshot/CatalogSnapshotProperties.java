@@ -0,0 +1,16 @@
+package the.husky.onlineshoprest.snapshot;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "shop.items.snapshot")
+public record CatalogSnapshotProperties(@DefaultValue("false") boolean enabled,
+                                        @DefaultValue("catalog.snapshot") Path path,
+                                        @DefaultValue("5m") Duration writeInterval,
+                                        @DefaultValue("500ms") Duration followInterval,
+                                        @DefaultValue("2s") Duration healthCheckInterval,
+                                        @DefaultValue("1s") Duration healthCheckTimeout) {
+}
@@ -0,0 +1,184 @@
+package the.husky.onlineshoprest.snapshot;
+
+import the.husky.onlineshoprest.dto.Item;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+// Items are streamed in, so how big each section gets is only known at the end: every section goes to a
+// file of its own first, then they are joined behind the header and moved over the previous snapshot in
+// one step. A reader maps either the old snapshot or the complete new one, never half of it.
+final class CatalogSnapshotWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final Path written;
+    private final Section ids;
+    private final Section records;
+    private final Section heap;
+    private int count;
+    private long lastId = Long.MIN_VALUE;
+
+    CatalogSnapshotWriter(Path path) throws IOException {
+        this.path = path.toAbsolutePath();
+        this.written = sibling(".writing");
+        Files.createDirectories(this.path.getParent());
+        this.ids = new Section(sibling(".ids"));
+        this.records = new Section(sibling(".records"));
+        this.heap = new Section(sibling(".heap"));
+    }
+
+    // Lookups binary search the ids, so they have to arrive in ascending order.
+    void write(Item item) throws IOException {
+        long itemId = item.getItemId();
+        if (itemId <= lastId) {
+            throw new IllegalArgumentException("Item " + itemId + " came after item " + lastId);
+        }
+        lastId = itemId;
+        ids.putLong(itemId);
+        records.putLong(item.getVersion());
+        records.putDouble(item.getPrice());
+        records.putDouble(item.getWeight());
+        text(item.getTitle());
+        text(item.getDescription());
+        count++;
+    }
+
+    CatalogSnapshotFile commit(long changeSeq, Instant writtenAt) throws IOException {
+        ids.flush();
+        records.flush();
+        heap.flush();
+        long size = CatalogSnapshotFile.HEADER_SIZE + ids.size + records.size + heap.size;
+        // A single mapping stops at 2 GB.
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Catalog snapshot of " + count + " items would take " + size + " bytes");
+        }
+        try (FileChannel target = FileChannel.open(written, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            target.position(CatalogSnapshotFile.HEADER_SIZE);
+            ids.transferTo(target);
+            records.transferTo(target);
+            heap.transferTo(target);
+            MappedByteBuffer buffer = target.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(CatalogSnapshotFile.MAGIC_AT, CatalogSnapshotFile.MAGIC)
+                    .putInt(CatalogSnapshotFile.FORMAT_VERSION_AT, CatalogSnapshotFile.FORMAT_VERSION)
+                    .putInt(CatalogSnapshotFile.COUNT_AT, count)
+                    .putLong(CatalogSnapshotFile.WRITTEN_AT, writtenAt.toEpochMilli())
+                    .putLong(CatalogSnapshotFile.CHANGE_SEQ_AT, changeSeq)
+                    .putLong(CatalogSnapshotFile.HEAP_LENGTH_AT, heap.size)
+                    .putLong(CatalogSnapshotFile.CHECKSUM_AT, CatalogSnapshotFile.checksum(buffer));
+            // Forcing the channel doesn't cover what went through the mapping.
+            buffer.force();
+            target.force(true);
+        }
+        Files.move(written, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        try (FileChannel directory = FileChannel.open(path.getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        }
+        return CatalogSnapshotFile.open(path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        ids.close();
+        records.close();
+        heap.close();
+        Files.deleteIfExists(written);
+    }
+
+    private void text(String value) throws IOException {
+        if (value == null) {
+            records.putInt(0);
+            records.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        records.putInt((int) heap.size);
+        records.putInt(bytes.length);
+        heap.put(bytes);
+    }
+
+    private Path sibling(String suffix) {
+        return path.resolveSibling(path.getFileName() + suffix);
+    }
+
+    private static final class Section implements Closeable {
+        private final Path path;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long size;
+
+        private Section(Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void putLong(long value) throws IOException {
+            reserve(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        void putDouble(double value) throws IOException {
+            reserve(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        void putInt(int value) throws IOException {
+            reserve(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void put(byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+            size += bytes.length;
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        void transferTo(FileChannel target) throws IOException {
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+            Files.deleteIfExists(path);
+        }
+
+        private void reserve(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            size += bytes;
+        }
+    }
+}
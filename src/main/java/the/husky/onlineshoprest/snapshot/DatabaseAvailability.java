@@ -0,0 +1,62 @@
+package the.husky.onlineshoprest.snapshot;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Component;
+
+import java.util.Properties;
+
+// Whether PostgreSQL answers right now, asked over a connection of its own with short timeouts. Through the
+// pool the answer would take as long as its connection timeout, and every request would wait that long too.
+@Slf4j
+@Component
+public class DatabaseAvailability {
+    private final JdbcTemplate probe;
+    private volatile boolean available = true;
+
+    public DatabaseAvailability(DataSourceProperties dataSourceProperties, CatalogSnapshotProperties properties,
+                                MeterRegistry meterRegistry) {
+        SimpleDriverDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(SimpleDriverDataSource.class)
+                .build();
+        // The PostgreSQL driver takes them in seconds.
+        String timeout = Long.toString(Math.max(1, (properties.healthCheckTimeout().toMillis() + 999) / 1000));
+        Properties connectionProperties = new Properties();
+        connectionProperties.setProperty("connectTimeout", timeout);
+        connectionProperties.setProperty("loginTimeout", timeout);
+        connectionProperties.setProperty("socketTimeout", timeout);
+        dataSource.setConnectionProperties(connectionProperties);
+        this.probe = new JdbcTemplate(dataSource);
+        Gauge.builder("shop.datasource.available", this, availability -> availability.isAvailable() ? 1 : 0)
+                .description("Whether the database answered the last health check")
+                .register(meterRegistry);
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    void check() {
+        boolean reachable;
+        try {
+            probe.execute("SELECT 1");
+            reachable = true;
+        } catch (DataAccessException e) {
+            reachable = false;
+            log.debug("Database health check failed", e);
+        }
+        if (reachable != available) {
+            if (reachable) {
+                log.info("Database is reachable again, catalog writes are accepted");
+            } else {
+                log.warn("Database is unreachable, the catalog is read-only and served from its snapshot");
+            }
+        }
+        available = reachable;
+    }
+}
@@ -0,0 +1,54 @@
+package the.husky.onlineshoprest.startup;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+// The aot build profile dumps its CDS archive when the JVM exits, so the training run sends a few
+// requests, which puts the request-handling classes into the archive as well, and then stops.
+// Checked at runtime rather than with a condition, AOT settles conditional beans at build time.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrainingRun {
+    private final TrainingRunProperties properties;
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        if (!properties.enabled()) {
+            return;
+        }
+        if (event.getApplicationContext() instanceof WebServerApplicationContext context) {
+            sendRequests(context.getWebServer().getPort());
+        }
+        log.info("Training run finished, shutting down");
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+
+    private void sendRequests(int port) {
+        HttpClient client = HttpClient.newHttpClient();
+        for (String path : properties.requests()) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+            try {
+                // Any status will do, a 404 runs through the same handlers and the exception handling.
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                log.info("Training request {} answered {}", path, status);
+            } catch (IOException e) {
+                log.warn("Training request {} failed: {}", path, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
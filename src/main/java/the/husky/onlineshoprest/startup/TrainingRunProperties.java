@@ -0,0 +1,12 @@
+package the.husky.onlineshoprest.startup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+@ConfigurationProperties(prefix = "shop.startup.training-run")
+public record TrainingRunProperties(@DefaultValue("false") boolean enabled,
+                                    @DefaultValue({"/items/find/by/1", "/items/filter/by/price/1.0",
+                                            "/users/find/by/1"}) List<String> requests) {
+}
@@ -0,0 +1,203 @@
+package the.husky.onlineshoprest.stats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import the.husky.onlineshoprest.dto.Item;
+import the.husky.onlineshoprest.dto.ItemStatistics;
+import the.husky.onlineshoprest.event.ItemDeletedEvent;
+import the.husky.onlineshoprest.event.ItemSavedEvent;
+import the.husky.onlineshoprest.repository.ItemStreamRepository;
+import the.husky.onlineshoprest.writebehind.ItemWriteBehind;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Catalog aggregates kept in memory, so dashboards no longer pull the whole catalog to compute them.
+// Saves and deletes adjust them in place; what this node never hears about, writes on other nodes or
+// straight to the database, is corrected by rebuilding from PostgreSQL every reconcile-interval.
+@Slf4j
+@Component
+public class CatalogStatistics {
+    private final ItemStreamRepository itemStreamRepository;
+    private final ItemWriteBehind itemWriteBehind;
+    private final CatalogStatisticsProperties properties;
+    private final TaskScheduler taskScheduler;
+    private final Counter drift;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildLock = new Object();
+    private Aggregates current;
+    private Set<Long> changedDuringRebuild;
+    private Instant reconciledAt;
+
+    public CatalogStatistics(ItemStreamRepository itemStreamRepository, ItemWriteBehind itemWriteBehind,
+                             CatalogStatisticsProperties properties, TaskScheduler taskScheduler,
+                             MeterRegistry meterRegistry) {
+        this.itemStreamRepository = itemStreamRepository;
+        this.itemWriteBehind = itemWriteBehind;
+        this.properties = properties;
+        this.taskScheduler = taskScheduler;
+        this.current = newAggregates();
+        this.drift = Counter.builder("shop.items.stats.drift")
+                .description("Reconciliations that found the aggregates out of step with the database")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+        Duration interval = properties.reconcileInterval();
+        taskScheduler.scheduleWithFixedDelay(this::rebuild, Instant.now().plus(interval), interval);
+    }
+
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = new HashSet<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            long started = System.nanoTime();
+            Aggregates rebuilt = newAggregates();
+            // Streamed outside the lock, saves and deletes go on meanwhile and are reconciled below.
+            itemStreamRepository.streamAll(itemEntity -> rebuilt.put(itemWriteBehind.overlay(Item.toDto(itemEntity))));
+            lock.writeLock().lock();
+            try {
+                // The live aggregates saw those rows change after the stream may have read them.
+                for (Long itemId : changedDuringRebuild) {
+                    rebuilt.remove(itemId);
+                    Values values = current.items.get(itemId);
+                    if (values != null) {
+                        rebuilt.put(itemId, values);
+                    }
+                }
+                changedDuringRebuild = null;
+                if (reconciledAt != null && current.isOutOfStepWith(rebuilt)) {
+                    drift.increment();
+                    log.warn("Catalog statistics drifted, {} items became {} after reconciling",
+                            current.count(), rebuilt.count());
+                }
+                current = rebuilt;
+                reconciledAt = Instant.now();
+                log.info("Catalog statistics built from {} items in {} ms", rebuilt.count(),
+                        (System.nanoTime() - started) / 1_000_000);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @EventListener
+    public void onItemSaved(ItemSavedEvent event) {
+        lock.writeLock().lock();
+        try {
+            markChanged(event.item().getItemId());
+            current.put(event.item());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onItemDeleted(ItemDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            markChanged(event.itemId());
+            current.remove(event.itemId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ItemStatistics getStatistics() {
+        lock.readLock().lock();
+        try {
+            return ItemStatistics.builder()
+                    .count(current.count())
+                    .price(current.price.toStatistics())
+                    .weight(current.weight.toStatistics())
+                    .reconciledAt(reconciledAt)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void markChanged(long itemId) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(itemId);
+        }
+    }
+
+    private Aggregates newAggregates() {
+        return new Aggregates(new ValueAggregate(toBounds(properties.priceBuckets())),
+                new ValueAggregate(toBounds(properties.weightBuckets())));
+    }
+
+    private static double[] toBounds(List<Double> buckets) {
+        return buckets.stream()
+                .mapToDouble(Double::doubleValue)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    // An edit has to take the old price and weight back out, which the events don't carry,
+    // so the values every item currently counts with are kept too.
+    private record Values(double price, double weight) {
+    }
+
+    private record Aggregates(ValueAggregate price, ValueAggregate weight, Map<Long, Values> items) {
+
+        Aggregates(ValueAggregate price, ValueAggregate weight) {
+            this(price, weight, new HashMap<>());
+        }
+
+        void put(Item item) {
+            put(item.getItemId(), new Values(item.getPrice(), item.getWeight()));
+        }
+
+        void put(long itemId, Values values) {
+            remove(itemId);
+            items.put(itemId, values);
+            price.add(values.price());
+            weight.add(values.weight());
+        }
+
+        void remove(long itemId) {
+            Values values = items.remove(itemId);
+            if (values != null) {
+                price.remove(values.price());
+                weight.remove(values.weight());
+            }
+        }
+
+        long count() {
+            return items.size();
+        }
+
+        boolean isOutOfStepWith(Aggregates other) {
+            return count() != other.count()
+                    || differs(price.sum(), other.price.sum())
+                    || differs(weight.sum(), other.weight.sum());
+        }
+
+        // Sums kept by adding and subtracting pick up rounding errors that are no drift.
+        private static boolean differs(double left, double right) {
+            return Math.abs(left - right) > 1e-9 * Math.max(1, Math.abs(right));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package the.husky.onlineshoprest.stats;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+// Bucket bounds are ascending, each one starts a bucket: [10, 50) is the second with the defaults.
+@ConfigurationProperties(prefix = "shop.items.stats")
+public record CatalogStatisticsProperties(@DefaultValue("10m") Duration reconcileInterval,
+                                          @DefaultValue({"10", "50", "100", "500", "1000"}) List<Double> priceBuckets,
+                                          @DefaultValue({"1", "5", "10", "25", "50"}) List<Double> weightBuckets) {
+}
@@ -0,0 +1,70 @@
+package the.husky.onlineshoprest.stats;
+
+import the.husky.onlineshoprest.dto.HistogramBucket;
+import the.husky.onlineshoprest.dto.ValueStatistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+// Count, sum and histogram move in constant time. Min and max can't survive removing the current extreme
+// that way, so the distinct values are kept counted in a tree and the extremes are its ends.
+final class ValueAggregate {
+    private final double[] bounds;
+    private final long[] buckets;
+    private final TreeMap<Double, Integer> values = new TreeMap<>();
+    private long count;
+    private double sum;
+
+    ValueAggregate(double[] bounds) {
+        this.bounds = bounds;
+        this.buckets = new long[bounds.length + 1];
+    }
+
+    void add(double value) {
+        count++;
+        sum += value;
+        buckets[bucket(value)]++;
+        values.merge(value, 1, Integer::sum);
+    }
+
+    void remove(double value) {
+        count--;
+        // Rounding errors would otherwise leave an empty catalog with a sum just off zero.
+        sum = count == 0 ? 0 : sum - value;
+        buckets[bucket(value)]--;
+        values.computeIfPresent(value, (key, occurrences) -> occurrences == 1 ? null : occurrences - 1);
+    }
+
+    long count() {
+        return count;
+    }
+
+    double sum() {
+        return sum;
+    }
+
+    ValueStatistics toStatistics() {
+        List<HistogramBucket> histogram = new ArrayList<>(buckets.length);
+        for (int i = 0; i < buckets.length; i++) {
+            histogram.add(HistogramBucket.builder()
+                    .from(i == 0 ? null : bounds[i - 1])
+                    .to(i == bounds.length ? null : bounds[i])
+                    .count(buckets[i])
+                    .build());
+        }
+        return ValueStatistics.builder()
+                .min(values.isEmpty() ? null : values.firstKey())
+                .max(values.isEmpty() ? null : values.lastKey())
+                .average(count == 0 ? null : sum / count)
+                .sum(sum)
+                .histogram(histogram)
+                .build();
+    }
+
+    private int bucket(double value) {
+        int index = Arrays.binarySearch(bounds, value);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+}
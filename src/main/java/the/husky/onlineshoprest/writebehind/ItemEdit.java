@@ -0,0 +1,28 @@
+package the.husky.onlineshoprest.writebehind;
+
+import the.husky.onlineshoprest.dto.Item;
+import the.husky.onlineshoprest.entity.ItemEntity;
+
+public record ItemEdit(long sequence, long itemId, String title, String description, double price, double weight) {
+
+    Item applyTo(Item item) {
+        return Item.builder()
+                .itemId(itemId)
+                .title(title)
+                .description(description)
+                .price(price)
+                .weight(weight)
+                .version(item.getVersion())
+                .build();
+    }
+
+    ItemEntity toEntity() {
+        return ItemEntity.builder()
+                .itemId(itemId)
+                .title(title)
+                .description(description)
+                .price(price)
+                .weight(weight)
+                .build();
+    }
+}
@@ -0,0 +1,166 @@
+package the.husky.onlineshoprest.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// One JSON line per edit. Appends and rewrites are serialized on the log itself,
+// fsync is shared so that a burst of edits pays for one force instead of one each.
+@Slf4j
+class ItemEditLog implements Closeable {
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final Object syncLock = new Object();
+    private volatile FileChannel channel;
+    private volatile long appended;
+    private long synced;
+
+    ItemEditLog(Path path, ObjectMapper objectMapper) {
+        this.path = path.toAbsolutePath();
+        this.objectMapper = objectMapper;
+    }
+
+    // Reads the surviving edits and cuts off a line torn by a crash before the log is reopened for appends.
+    synchronized List<ItemEdit> open() {
+        List<ItemEdit> edits = new ArrayList<>();
+        try {
+            Files.createDirectories(path.getParent());
+            long validLength = 0;
+            if (Files.exists(path)) {
+                try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        ItemEdit edit = parse(line);
+                        if (edit == null) {
+                            break;
+                        }
+                        edits.add(edit);
+                        validLength += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                    }
+                }
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (channel.size() > validLength) {
+                log.warn("Discarding {} bytes of a torn write at the end of {}", channel.size() - validLength, path);
+                channel.truncate(validLength);
+                channel.force(true);
+            }
+            channel.position(Math.min(validLength, channel.size()));
+            if (validLength > channel.size()) {
+                // The crash hit right before the newline of a complete edit.
+                channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't open item edit log " + path, e);
+        }
+        appended = edits.stream().mapToLong(ItemEdit::sequence).max().orElse(0);
+        synced = appended;
+        return edits;
+    }
+
+    synchronized long nextSequence() {
+        return appended + 1;
+    }
+
+    synchronized void append(ItemEdit edit) {
+        try {
+            write(channel, edit);
+            appended = edit.sequence();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't append to item edit log " + path, e);
+        }
+    }
+
+    // Returns once everything up to the sequence is on disk. Whoever gets the lock forces
+    // all appends so far, so threads queued behind it usually find their edit already synced.
+    void sync(long sequence) {
+        synchronized (syncLock) {
+            while (synced < sequence) {
+                long target = appended;
+                try {
+                    channel.force(false);
+                    synced = Math.max(synced, target);
+                } catch (ClosedChannelException e) {
+                    // A rewrite swapped the file, everything it carries is already forced.
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Can't sync item edit log " + path, e);
+                }
+            }
+        }
+    }
+
+    // Replaces the log with only the edits that are still pending.
+    synchronized void rewrite(Collection<ItemEdit> edits) {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compacting");
+        try {
+            try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (ItemEdit edit : edits) {
+                    write(target, edit);
+                }
+                target.force(true);
+            }
+            Files.move(compacted, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel directory = FileChannel.open(path.getParent(), StandardOpenOption.READ)) {
+                directory.force(true);
+            }
+            FileChannel previous = channel;
+            channel = FileChannel.open(path, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            previous.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't compact item edit log " + path, e);
+        }
+    }
+
+    long size() {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.force(true);
+            channel.close();
+        }
+    }
+
+    private void write(FileChannel target, ItemEdit edit) throws IOException {
+        byte[] line = objectMapper.writeValueAsBytes(edit);
+        ByteBuffer buffer = ByteBuffer.allocate(line.length + 1)
+                .put(line)
+                .put((byte) '\n')
+                .flip();
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+
+    private ItemEdit parse(String line) {
+        try {
+            return objectMapper.readValue(line, ItemEdit.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package the.husky.onlineshoprest.writebehind;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import the.husky.onlineshoprest.cache.ItemCache;
+import the.husky.onlineshoprest.dto.Item;
+import the.husky.onlineshoprest.dto.TaggedItem;
+import the.husky.onlineshoprest.repository.ItemBatchRepository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemWriteBehind implements MeterBinder {
+    private final ItemWriteBehindProperties properties;
+    private final ItemBatchRepository itemBatchRepository;
+    private final ObjectMapper objectMapper;
+    private final TaskScheduler taskScheduler;
+    private final ItemCache itemCache;
+
+    private final Map<Long, ItemEdit> pending = new ConcurrentHashMap<>();
+    private final LongAdder flushedEdits = new LongAdder();
+    private final LongAdder coalescedEdits = new LongAdder();
+    private final Object flushLock = new Object();
+    private ItemEditLog editLog;
+
+    @PostConstruct
+    public void replay() {
+        if (!properties.enabled()) {
+            return;
+        }
+        editLog = new ItemEditLog(properties.logPath(), objectMapper);
+        List<ItemEdit> edits = editLog.open();
+        // Later lines win, the flush after startup brings PostgreSQL up to date.
+        edits.forEach(edit -> pending.put(edit.itemId(), edit));
+        log.info("Item write-behind enabled, replayed {} edits for {} items from {}",
+                edits.size(), pending.size(), properties.logPath());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (properties.enabled()) {
+            taskScheduler.scheduleWithFixedDelay(this::flush, properties.flushInterval());
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    // The edit is durable once this returns, PostgreSQL catches up on the next flush.
+    public void append(Item item) {
+        ItemEdit edit;
+        synchronized (editLog) {
+            edit = new ItemEdit(editLog.nextSequence(), item.getItemId(), item.getTitle(),
+                    item.getDescription(), item.getPrice(), item.getWeight());
+            editLog.append(edit);
+            if (pending.put(edit.itemId(), edit) != null) {
+                coalescedEdits.increment();
+            }
+        }
+        editLog.sync(edit.sequence());
+    }
+
+    public Item overlay(Item item) {
+        if (pending.isEmpty()) {
+            return item;
+        }
+        ItemEdit edit = pending.get(item.getItemId());
+        return edit == null ? item : edit.applyTo(item);
+    }
+
+    // Content and revision come from a single read of the pending edit, so they always match.
+    public TaggedItem tag(Item item) {
+        ItemEdit edit = pending.isEmpty() ? null : pending.get(item.getItemId());
+        if (edit == null) {
+            return new TaggedItem(item, String.valueOf(item.getVersion()));
+        }
+        // The version only moves on flush, the sequence tells pending edits apart until then.
+        return new TaggedItem(edit.applyTo(item), item.getVersion() + "-" + edit.sequence());
+    }
+
+    // A deleted item has nothing left to update, a replayed edit for it just matches no row.
+    public void discard(long itemId) {
+        pending.remove(itemId);
+    }
+
+    public void flush() {
+        if (!properties.enabled()) {
+            return;
+        }
+        synchronized (flushLock) {
+            while (!pending.isEmpty()) {
+                List<ItemEdit> batch = new ArrayList<>(Math.min(pending.size(), properties.maxBatchSize()));
+                for (ItemEdit edit : pending.values()) {
+                    batch.add(edit);
+                    if (batch.size() == properties.maxBatchSize()) {
+                        break;
+                    }
+                }
+                try {
+                    itemBatchRepository.updateAll(batch.stream().map(ItemEdit::toEntity).toList());
+                } catch (DataAccessException e) {
+                    log.error("Error during flushing {} item edits, retrying on the next run: {}",
+                            batch.size(), e.getMessage());
+                    return;
+                }
+                // Cached copies of flushed items carry the version from before the update. They go first,
+                // so once an edit leaves the map no cached item still shows it under the old version.
+                // An edit that arrived during the flush replaced the map entry and stays pending.
+                for (ItemEdit edit : batch) {
+                    itemCache.invalidate(edit.itemId());
+                    pending.remove(edit.itemId(), edit);
+                }
+                flushedEdits.add(batch.size());
+            }
+            compactIfNeeded();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (editLog == null) {
+            return;
+        }
+        flush();
+        editLog.close();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("shop.items.write.behind.pending", pending, Map::size)
+                .description("Item edits acknowledged but not yet in PostgreSQL")
+                .register(registry);
+        Gauge.builder("shop.items.write.behind.log.size", this, writeBehind ->
+                        writeBehind.editLog == null ? 0 : writeBehind.editLog.size())
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("shop.items.write.behind.flushed", flushedEdits, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("shop.items.write.behind.coalesced", coalescedEdits, LongAdder::sum)
+                .description("Edits superseded by a later edit of the same item before a flush")
+                .register(registry);
+    }
+
+    // Every edit outside the pending map is already committed, so the log only has to keep those.
+    private void compactIfNeeded() {
+        synchronized (editLog) {
+            long size = editLog.size();
+            if ((pending.isEmpty() && size > 0) || size > properties.compactThreshold().toBytes()) {
+                editLog.rewrite(pending.values().stream()
+                        .sorted(Comparator.comparingLong(ItemEdit::sequence))
+                        .toList());
+            }
+        }
+    }
+}
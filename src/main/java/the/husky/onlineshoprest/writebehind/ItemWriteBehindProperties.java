@@ -0,0 +1,16 @@
+package the.husky.onlineshoprest.writebehind;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "shop.items.write-behind")
+public record ItemWriteBehindProperties(@DefaultValue("false") boolean enabled,
+                                        @DefaultValue("item-edits.log") Path logPath,
+                                        @DefaultValue("200ms") Duration flushInterval,
+                                        @DefaultValue("500") int maxBatchSize,
+                                        @DefaultValue("16MB") DataSize compactThreshold) {
+}
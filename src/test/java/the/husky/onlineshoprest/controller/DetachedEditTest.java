@@ -0,0 +1,92 @@
+package the.husky.onlineshoprest.controller;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import the.husky.onlineshoprest.dto.Item;
+import the.husky.onlineshoprest.dto.User;
+
+import java.util.Map;
+import java.util.UUID;
+
+// Without a session around the request every entity a service finds is detached by the time it is
+// saved, which is how the prod profile runs.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"shop.items.snapshot.enabled=false", "spring.jpa.open-in-view=false"})
+class DetachedEditTest {
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void editedItemCarriesTheVersionItWasSavedWith() {
+        Item item = post("/items/add", item("before"), Item.class);
+        try {
+            Item editedItem = post("/items/edit/" + item.getItemId(), item("after"), Item.class);
+
+            Assertions.assertThat(editedItem.getVersion()).isEqualTo(item.getVersion() + 1);
+            webTestClient.get().uri("/items/find/by/" + item.getItemId())
+                    .header(HttpHeaders.IF_NONE_MATCH, EntityTags.of(item.getVersion()))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals(HttpHeaders.ETAG, EntityTags.of(editedItem.getVersion()))
+                    .expectBody(Item.class).value(found -> Assertions.assertThat(found.getTitle()).isEqualTo("after"));
+            webTestClient.patch().uri("/items/" + item.getItemId())
+                    .header(HttpHeaders.IF_MATCH, EntityTags.of(editedItem.getVersion()))
+                    .bodyValue(Map.of("price", 99))
+                    .exchange()
+                    .expectStatus().isOk();
+        } finally {
+            webTestClient.delete().uri("/items/delete/" + item.getItemId()).exchange();
+        }
+    }
+
+    @Test
+    void editedUserCarriesTheVersionItWasSavedWith() {
+        String login = "detached-" + UUID.randomUUID();
+        User user = post("/users/add", user(login, "Before"), User.class);
+        try {
+            User editedUser = post("/users/edit/" + user.getId(), user(login, "After"), User.class);
+
+            Assertions.assertThat(editedUser.getVersion()).isEqualTo(user.getVersion() + 1);
+            Assertions.assertThat(editedUser.getName()).isEqualTo("After");
+            webTestClient.patch().uri("/users/" + user.getId())
+                    .header(HttpHeaders.IF_MATCH, EntityTags.of(editedUser.getVersion()))
+                    .bodyValue(Map.of("age", 31))
+                    .exchange()
+                    .expectStatus().isEqualTo(HttpStatus.OK);
+        } finally {
+            webTestClient.delete().uri("/users/delete/" + user.getId()).exchange();
+        }
+    }
+
+    private <T> T post(String uri, Map<String, Object> body, Class<T> type) {
+        return webTestClient.post().uri(uri)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(type)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private static Map<String, Object> item(String title) {
+        return Map.of(
+                "title", title,
+                "description", "detached edit",
+                "price", 10,
+                "weight", 1);
+    }
+
+    private static Map<String, Object> user(String login, String name) {
+        return Map.of(
+                "name", name,
+                "login", login,
+                "password", "secret-password",
+                "email", login + "@example.com",
+                "age", 30);
+    }
+}
@@ -0,0 +1,88 @@
+package the.husky.onlineshoprest.controller;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import the.husky.onlineshoprest.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Runs against the PostgreSQL database the application is configured for.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "shop.items.snapshot.enabled=false")
+class UserRegistrationTest {
+    private static final int CONCURRENT_REGISTRATIONS = 8;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final String login = "race-" + UUID.randomUUID();
+
+    @AfterEach
+    void deleteUser() {
+        userRepository.findByLogin(login).ifPresent(userRepository::delete);
+    }
+
+    @Test
+    void concurrentRegistrationsOfOneLoginCreateOneUser() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REGISTRATIONS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<String>>> responses = new ArrayList<>();
+        try {
+            for (int i = 0; i < CONCURRENT_REGISTRATIONS; i++) {
+                String email = login + "-" + i + "@example.com";
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return register(login, email);
+                }));
+            }
+            start.countDown();
+            List<HttpStatus> statuses = new ArrayList<>();
+            for (Future<ResponseEntity<String>> response : responses) {
+                statuses.add(HttpStatus.valueOf(response.get().getStatusCode().value()));
+            }
+
+            Assertions.assertThat(statuses).containsOnly(HttpStatus.OK, HttpStatus.CONFLICT);
+            Assertions.assertThat(statuses).filteredOn(HttpStatus.OK::equals).hasSize(1);
+            Assertions.assertThat(userRepository.findByLogin(login)).isPresent();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void duplicateEmailIsReportedAsConflict() {
+        String email = login + "@example.com";
+        Assertions.assertThat(register(login, email).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        ResponseEntity<String> duplicate = register(login + "-other", email);
+
+        Assertions.assertThat(duplicate.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        Assertions.assertThat(duplicate.getBody()).contains("email: " + email);
+    }
+
+    private ResponseEntity<String> register(String login, String email) {
+        Map<String, Object> user = Map.of(
+                "name", "Race",
+                "login", login,
+                "password", "secret-password",
+                "email", email,
+                "age", 30);
+        return restTemplate.postForEntity("/users/add", user, String.class);
+    }
+}
@@ -0,0 +1,26 @@
+package the.husky.onlineshoprest.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Keeps the last statement Hibernate prepared on the calling thread, so a test can EXPLAIN exactly
+// the SQL a query method generates. Whatever inspector the application installed still sees it first.
+class CapturingStatementInspector implements StatementInspector {
+    private static final ThreadLocal<String> LAST_STATEMENT = new ThreadLocal<>();
+
+    private final StatementInspector delegate;
+
+    CapturingStatementInspector(StatementInspector delegate) {
+        this.delegate = delegate;
+    }
+
+    static String lastStatement() {
+        return LAST_STATEMENT.get();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        String inspected = delegate == null ? sql : delegate.inspect(sql);
+        LAST_STATEMENT.set(inspected);
+        return inspected;
+    }
+}
@@ -0,0 +1,142 @@
+package the.husky.onlineshoprest.repository;
+
+import org.assertj.core.api.Assertions;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import the.husky.onlineshoprest.dto.ItemSearchCriteria;
+import the.husky.onlineshoprest.entity.ItemEntity;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+// Runs against the PostgreSQL database the application is configured for. The plans are for the SQL
+// Hibernate generates, caught on its way to the driver. Every test rolls back, and sequential scans are
+// priced out for its transaction, so a plan shows whether an index can serve the query at all. The
+// ranges are narrow ones, walking the primary key in page order and filtering is cheaper than any index
+// for a range that covers a good part of the table.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "shop.items.snapshot.enabled=false")
+@Transactional
+class ItemSearchRepositoryTest {
+    private static final int PAGE_SIZE = 20;
+
+    @TestConfiguration
+    static class StatementCapture {
+        // Runs after the application's customizers, so it wraps the inspector the metrics install instead of
+        // being replaced by it. Should that ever change, no statement is captured and every plan test fails.
+        @Bean
+        @Order(Ordered.LOWEST_PRECEDENCE)
+        HibernatePropertiesCustomizer capturingStatementInspector() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new CapturingStatementInspector(
+                    (StatementInspector) properties.get(AvailableSettings.STATEMENT_INSPECTOR)));
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemSearchRepository itemSearchRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void titleIndexComparesBytesWhateverTheCollation() {
+        String indexDefinition = jdbcTemplate.queryForObject(
+                "SELECT indexdef FROM pg_indexes WHERE tablename = 'items' AND indexname = ?",
+                String.class, ItemTitleIndexMigration.INDEX);
+
+        Assertions.assertThat(indexDefinition).contains("(title text_pattern_ops)");
+    }
+
+    @Test
+    void titlePrefixIsServedByTitleIndex() {
+        ItemSearchCriteria criteria = new ItemSearchCriteria();
+        criteria.setTitle("T0049");
+
+        Assertions.assertThat(explainSearch(criteria, "T0049%"))
+                .containsPattern("Index Scan (using|on) " + ItemTitleIndexMigration.INDEX)
+                .contains("~>=~ 'T0049'::text")
+                .contains("~<~ 'T004:'::text");
+    }
+
+    @Test
+    void titleEqualityIsServedByTitleIndex() {
+        itemRepository.findAllByTitle("T00042");
+
+        Assertions.assertThat(explainLastStatement("T00042"))
+                .containsPattern("Index Scan (using|on) " + ItemTitleIndexMigration.INDEX);
+    }
+
+    @Test
+    void priceRangeIsServedByPriceWeightIndex() {
+        ItemSearchCriteria criteria = new ItemSearchCriteria();
+        criteria.setMinPrice(10.0);
+        criteria.setMaxPrice(10.05);
+
+        Assertions.assertThat(explainSearch(criteria, 10.0, 10.05))
+                .containsPattern("Index Scan (using|on) idx_items_price_weight");
+    }
+
+    @Test
+    void weightRangeIsServedByWeightPriceIndex() {
+        ItemSearchCriteria criteria = new ItemSearchCriteria();
+        criteria.setMinWeight(10.0);
+        criteria.setMaxWeight(10.01);
+
+        Assertions.assertThat(explainSearch(criteria, 10.0, 10.01))
+                .containsPattern("Index Scan (using|on) idx_items_weight_price");
+    }
+
+    @Test
+    void titlePrefixMatchesWildcardsLiterally() {
+        String prefix = "search_" + UUID.randomUUID() + "%";
+        insertItem(prefix + "one");
+        insertItem(prefix + "two");
+        insertItem(prefix.replace("_", "-") + "three");
+        ItemSearchCriteria criteria = new ItemSearchCriteria();
+        criteria.setTitle(prefix);
+
+        List<ItemEntity> items = itemSearchRepository.search(criteria, PageRequest.of(0, 1)).getContent();
+        List<ItemEntity> rest = itemSearchRepository.search(criteria, PageRequest.of(1, 1)).getContent();
+
+        Assertions.assertThat(items).extracting(ItemEntity::getTitle).containsExactly(prefix + "one");
+        Assertions.assertThat(rest).extracting(ItemEntity::getTitle).containsExactly(prefix + "two");
+    }
+
+    // The filter values go first, in the order the criteria are checked, then the offset and row limit
+    // of the first page.
+    private String explainSearch(ItemSearchCriteria criteria, Object... filterValues) {
+        itemSearchRepository.search(criteria, PageRequest.of(0, PAGE_SIZE));
+        Object[] parameters = Arrays.copyOf(filterValues, filterValues.length + 2);
+        parameters[filterValues.length] = 0;
+        parameters[filterValues.length + 1] = PAGE_SIZE + 1;
+        return explainLastStatement(parameters);
+    }
+
+    // Planned with the values bound, as PostgreSQL plans an unnamed statement.
+    private String explainLastStatement(Object... parameters) {
+        String sql = CapturingStatementInspector.lastStatement();
+        // Fresh statistics, a table that was never analyzed is estimated the same for any range.
+        jdbcTemplate.execute("ANALYZE items");
+        jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters));
+    }
+
+    private void insertItem(String title) {
+        jdbcTemplate.update("INSERT INTO items (title, description, price, weight) VALUES (?, 'test', 1, 1)", title);
+    }
+}